@@ -0,0 +1,57 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
+/**
+ * Benchmark for compiling in-process
+ * compiles every program of a test file over and over, through Compiler.compile (which
+ *      renders every tree, table and image into the program's Output, as --quiet does)
+ *      and through CompilerService.compile (which formats nothing), both with the fused
+ *      front end, and reports programs compiled per second
+ *
+ * run from the repository root:
+ *      javac -d out src/*.java bench/*.java
+ *      java -cp out CompilerServiceBenchmark [file]
+ */
+public class CompilerServiceBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final int ITERATIONS = 200;
+
+    public static void main(String[] args) throws IOException {
+        String fileName = args.length > 0 ? args[0] : "src/testPrograms.txt";
+        ArrayList<CharSequence> programs = new ArrayList<>();
+        try (ProgramSource reader = new ProgramReader(fileName)) {
+            CharSequence program;
+            while((program = reader.next()) != null) {
+                programs.add(program);
+            }
+        }
+        CompilerService service = new CompilerService();
+
+        long sink = 0;
+        for(int round = 1; round <= ROUNDS; round++) {
+            long t0 = System.nanoTime();
+            for(int n = 0; n < ITERATIONS; n++) {
+                for(int i = 0; i < programs.size(); i++) {
+                    Output output = Compiler.compile(programs.get(i), i + 1, false, service, false, false);
+                    sink += output.getDiagnostics().size();
+                }
+            }
+            long t1 = System.nanoTime();
+            for(int n = 0; n < ITERATIONS; n++) {
+                for(CharSequence program : programs) {
+                    sink += service.compile(program).getDiagnostics().size();
+                }
+            }
+            long t2 = System.nanoTime();
+
+            double count = (double) ITERATIONS * programs.size();
+            System.out.printf("round %d: Compiler.compile %8.0f programs/s, CompilerService.compile %8.0f programs/s%n",
+                    round, count * 1e9 / (t1 - t0), count * 1e9 / (t2 - t1));
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Microbenchmark for keyword recognition in the Lexer
+ * compares the old path (grow a String one letter at a time and test it
+ *      against each keyword with chained equals) with Keywords.match
+ *
+ * run from the repository root:
+ *      javac -d out src/*.java bench/KeywordBenchmark.java
+ *      java -cp out KeywordBenchmark
+ */
+public class KeywordBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final int ITERATIONS = 200_000;
+
+    // letter runs as they appear in programs: keywords, ids, and ids run together with keywords
+    private static final String[] WORDS = {
+        "print", "while", "if", "int", "boolean", "string", "true", "false",
+        "ab", "xy", "intx", "printa", "whilex", "abcdefg", "fintif", "stringbooleanfalse"
+    };
+
+    public static void main(String[] args) {
+        // one source buffer, each word followed by a space like real program text
+        StringBuilder text = new StringBuilder();
+        int[] starts = new int[WORDS.length];
+        for(int i = 0; i < WORDS.length; i++) {
+            starts[i] = text.length();
+            text.append(WORDS[i]).append(' ');
+        }
+        String source = text.toString();
+        char[] chars = source.toCharArray();
+
+        // results must agree before timing anything
+        for(int start : starts) {
+            if(oldPath(chars, start) != Keywords.match(source, start, source.length())) {
+                throw new IllegalStateException("paths disagree at " + start);
+            }
+        }
+
+        long sink = 0;
+        for(int round = 1; round <= ROUNDS; round++) {
+            long t0 = System.nanoTime();
+            for(int n = 0; n < ITERATIONS; n++) {
+                for(int start : starts) {
+                    sink += oldPath(chars, start).ordinal();
+                }
+            }
+            long t1 = System.nanoTime();
+            for(int n = 0; n < ITERATIONS; n++) {
+                for(int start : starts) {
+                    sink += Keywords.match(source, start, source.length()).ordinal();
+                }
+            }
+            long t2 = System.nanoTime();
+
+            double ops = (double) ITERATIONS * starts.length;
+            System.out.printf("round %d: chained equals %6.1f ns/word, Keywords.match %6.1f ns/word%n",
+                    round, (t1 - t0) / ops, (t2 - t1) / ops);
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    /**
+     * keyword loop of the previous Lexer: grows a String one letter at a time
+     *      and tests it with chained equals
+     * @param chars program text
+     * @param i index of the first letter
+     * @return Kind of keyword, or Kind.ERROR
+     */
+    private static Kind oldPath(char[] chars, int i) {
+        String tokenBuilder = Character.toString(chars[i]);
+        int tempCounter = i + 1;
+        String temp = Character.toString(chars[tempCounter]);
+
+        while(isLetter(temp)) {
+            tokenBuilder += temp;
+            tempCounter++;
+            temp = Character.toString(chars[tempCounter]);
+            if(isKeyword(tokenBuilder)) {
+                break;
+            }
+        }
+        return getKeyword(tokenBuilder);
+    }
+
+    private static boolean isLetter(String v) {
+        return "abcdefghijklmnopqrstuvwxyz".contains(v);
+    }
+
+    private static boolean isKeyword(String v) {
+        return (v.equals("print") ||
+                v.equals("while") ||
+                v.equals("if") ||
+                v.equals("int") ||
+                v.equals("boolean") ||
+                v.equals("string") ||
+                v.equals("true") ||
+                v.equals("false"));
+    }
+
+    private static Kind getKeyword(String v) {
+        switch (v) {
+            case "print": return Kind.PRINT;
+            case "while": return Kind.WHILE;
+            case "if": return Kind.IF;
+            case "int": return Kind.TYPE_INT;
+            case "boolean": return Kind.TYPE_BOOLEAN;
+            case "string": return Kind.TYPE_STRING;
+            case "true": return Kind.TRUE;
+            case "false": return Kind.FALSE;
+            default: return Kind.ERROR;
+        }
+    }
+}
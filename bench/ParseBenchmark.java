@@ -0,0 +1,99 @@
+import java.util.ArrayList;
+
+/**
+ * Benchmark for parse scaling with program length
+ * lexes, parses and semantically analyzes single programs of 10k to 1M tokens
+ *      and reports time per token for each phase (constant per token = linear);
+ *      the fused single pass front end (no CST) is timed against parse + sa, and
+ *      the old ArrayList.remove(0) token walk is timed for comparison
+ *
+ * run from the repository root:
+ *      javac -d out src/*.java bench/*.java
+ *      java -cp out ParseBenchmark
+ */
+public class ParseBenchmark {
+
+    private static final int[] SIZES = { 10_000, 100_000, 1_000_000 };
+    private static final int ROUNDS = 3;
+
+    // remove(0) is quadratic, so it is only timed up to this many tokens
+    private static final int MAX_REMOVE_SIZE = 200_000;
+
+    public static void main(String[] args) {
+        System.out.printf("%10s %12s %12s %12s %12s %16s%n", "tokens", "lex ns/tok", "parse ns/tok", "sa ns/tok", "fused ns/tok", "remove(0) ns/tok");
+
+        for(int size : SIZES) {
+            String program = program(size);
+
+            long lex = Long.MAX_VALUE;
+            long parse = Long.MAX_VALUE;
+            long analyze = Long.MAX_VALUE;
+            long fused = Long.MAX_VALUE;
+            long remove = Long.MAX_VALUE;
+            int count = 0;
+
+            for(int round = 0; round < ROUNDS; round++) {
+                long t0 = System.nanoTime();
+                Lexer lexer = new Lexer(program, 1, Output.discard());
+                long t1 = System.nanoTime();
+                Parser parser = new Parser(lexer.getTokens(), 1, Output.discard());
+                long t2 = System.nanoTime();
+                SemanticAnalyzer analyzer = new SemanticAnalyzer(lexer.getTokens(), 1, Output.discard());
+                long t3 = System.nanoTime();
+                SemanticAnalyzer frontEnd = new SemanticAnalyzer(lexer.getTokens(), 1, Output.discard(), false);
+                long t4 = System.nanoTime();
+
+                if(!lexer.success() || !parser.success() || !analyzer.success() || !frontEnd.success()) {
+                    throw new IllegalStateException("benchmark program did not compile");
+                }
+
+                TokenBuffer tokens = lexer.getTokens();
+                count = tokens.size();
+                if(count <= MAX_REMOVE_SIZE) {
+                    remove = Math.min(remove, removeWalk(tokens));
+                }
+
+                lex = Math.min(lex, t1 - t0);
+                parse = Math.min(parse, t2 - t1);
+                analyze = Math.min(analyze, t3 - t2);
+                fused = Math.min(fused, t4 - t3);
+            }
+
+            System.out.printf("%10d %12.1f %12.1f %12.1f %12.1f %16s%n", count,
+                    (double) lex / count, (double) parse / count, (double) analyze / count, (double) fused / count,
+                    remove == Long.MAX_VALUE ? "skipped" : String.format("%.1f", (double) remove / count));
+        }
+    }
+
+    /**
+     * builds a valid program with about the given number of tokens
+     * @param tokens number of tokens wanted
+     * @return program text
+     */
+    private static String program(int tokens) {
+        StringBuilder program = new StringBuilder("{\n int a\n");
+        for(int i = 0; i < tokens / 3; i++) {
+            program.append(" a = ").append(i % 10).append('\n');
+        }
+        program.append(" print(a)\n}$\n");
+        return program.toString();
+    }
+
+    /**
+     * walks a copy of the tokens the way the phases used to, with ArrayList.remove(0)
+     * @param tokens tokens to walk
+     * @return elapsed nanoseconds
+     */
+    private static long removeWalk(TokenBuffer tokens) {
+        ArrayList<Token> stream = new ArrayList<>(tokens.size());
+        for(int i = 0; i < tokens.size(); i++) {
+            stream.add(tokens.get(i));
+        }
+
+        long t0 = System.nanoTime();
+        while(!stream.isEmpty()) {
+            stream.remove(0);
+        }
+        return System.nanoTime() - t0;
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Benchmark for the virtual machine's dispatch loop
+ * compiles a program of nested counting loops once, then runs the image repeatedly
+ *      and reports millions of instructions (and 6502 cycles) executed per second
+ *
+ * run from the repository root:
+ *      javac -d out src/*.java bench/*.java
+ *      java -cp out VirtualMachineBenchmark
+ */
+public class VirtualMachineBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int ROUNDS = 50;
+
+    // digits are single, so both loops count from 1 until the byte wraps around to 0 (255 trips each)
+    private static final String PROGRAM =
+            "{ int a int b int c a = 1 while (a != 0) { b = 1 while (b != 0) { b = 1 + b c = 2 + c } a = 1 + a } print(c) }$";
+
+    public static void main(String[] args) {
+        byte[] image = compile(PROGRAM);
+
+        for(int round = 0; round < WARMUP_ROUNDS; round++) {
+            execute(image);
+        }
+
+        long best = Long.MAX_VALUE;
+        VirtualMachine vm = null;
+        for(int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            vm = execute(image);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        System.out.printf("%14s %12s %10s %10s%n", "instructions", "cycles", "ms", "MIPS");
+        System.out.printf("%14d %12d %10.2f %10.1f%n", vm.getInstructions(), vm.getCycles(),
+                best / 1e6, vm.getInstructions() * 1e3 / best);
+    }
+
+    /**
+     * runs an image to completion
+     * @param image executable image
+     * @return virtual machine after the program halted
+     */
+    private static VirtualMachine execute(byte[] image) {
+        VirtualMachine vm = new VirtualMachine(image);
+        if(!vm.run()) {
+            throw new IllegalStateException("benchmark program did not halt: " + vm.getError());
+        }
+        return vm;
+    }
+
+    /**
+     * runs every phase of the compiler on a program
+     * @param program source text
+     * @return executable image
+     */
+    private static byte[] compile(String program) {
+        Lexer lexer = new Lexer(program, 1, Output.discard());
+        SemanticAnalyzer analyzer = new SemanticAnalyzer(lexer.getTokens(), 1, Output.discard(), false);
+        if(!lexer.success() || !analyzer.success()) {
+            throw new IllegalStateException("benchmark program did not compile");
+        }
+        new ASTOptimizer(analyzer.getAST(), 1, Output.discard());
+        CodeGenerator generator = new CodeGenerator(analyzer.getAST(), analyzer.getSymbolTable(), 1, Output.discard());
+        if(!generator.success()) {
+            throw new IllegalStateException("benchmark program did not compile");
+        }
+        return generator.getExecutableImage();
+    }
+}
@@ -0,0 +1,317 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * AST Optimizer phase of Compiler (between semantic analysis and code generation)
+ * rewrites the AST in place, in program order:
+ *      - constant terms of integer sums are folded ("1 + 2 + a" becomes "3 + a")
+ *      - ids whose value is known to be a constant are replaced by it
+ *      - a comparison of two constants becomes true or false
+ *      - an if statement with a constant condition is replaced by its block or removed,
+ *          and a while loop whose condition is always false is removed
+ *
+ * expressions are flattened onto their statement, so a comparison is only folded when
+ *      it is the only one in the statement; sums wrap around at 256 like ADC does
+ * values known before an if statement are kept only if the block does not change them,
+ *      and variables assigned anywhere in a while loop are unknown from the loop on
+ */
+public class ASTOptimizer extends Component {
+
+    private int foldedCount;
+    private int propagatedCount;
+    private int removedCount;
+
+    /**
+     * constructor for ASTOptimizer, optimizes the AST in place
+     * @param ast abstract syntax tree with resolved Symbols on id Nodes
+     * @param programNo program number for debug logging
+     * @param output output buffer for the current program
+     */
+    public ASTOptimizer(SyntaxTree ast, int programNo, Output output) {
+        super(output);
+
+        foldedCount = 0;
+        propagatedCount = 0;
+        removedCount = 0;
+
+        log("INFO", "Optimizing AST for program " + Integer.toString(programNo) + "...");
+
+        block(ast.getRoot(), new HashMap<>());
+
+        log("INFO", "AST optimization completed with " + foldedCount + " expression(s) folded, "
+                + propagatedCount + " constant(s) propagated and " + removedCount + " dead branch(es) removed\n");
+    }
+
+    /**
+     * optimizes every statement in a block
+     * @param block Block Node
+     * @param known constant value of each variable known at the start of the block (updated to the end)
+     */
+    private void block(Node block, HashMap<Symbol, String> known) {
+        List<Node> statements = block.getChildren();
+
+        for(int i = 0; i < statements.size(); i++) {
+            Node statement = statements.get(i);
+            List<Node> children = statement.getChildren();
+
+            switch(statement.getValue()) {
+                case "VarDecl":
+                    // variables start with the default value for their type
+                    Symbol declared = children.get(1).getSymbol();
+                    switch(children.get(0).getValue()) {
+                        case "int": known.put(declared, "0"); break;
+                        case "boolean": known.put(declared, "false"); break;
+                        default: known.put(declared, ""); break;
+                    }
+                    break;
+
+                case "AssignmentStatement":
+                    Symbol assigned = children.get(0).getSymbol();
+                    ArrayList<Node> value = fold(children.subList(1, children.size()), statement, known, false);
+                    replace(statement, children.subList(0, 1), value, null);
+
+                    Node result = value.get(0);
+                    if(value.size() == 1 && result.getSymbol() == null && getType(result.getValue()).equals(assigned.getType())) {
+                        known.put(assigned, result.getValue());
+                    } else {
+                        known.remove(assigned);
+                    }
+                    break;
+
+                case "PrintStatement":
+                    replace(statement, children.subList(0, 0), fold(children, statement, known, true), null);
+                    break;
+
+                case "IfStatement": {
+                    Node body = children.get(children.size() - 1);
+                    ArrayList<Node> condition = fold(children.subList(0, children.size() - 1), statement, known, false);
+                    replace(statement, children.subList(0, 0), condition, body);
+
+                    if(isConstant(condition, "true")) {
+                        // always runs, so the block takes the place of the if statement
+                        log("DEBUG", "condition of if statement is always true");
+                        removedCount++;
+                        body.setParent(block);
+                        statements.set(i, body);
+                        block(body, known);
+                    } else if(isConstant(condition, "false")) {
+                        log("DEBUG", "removing if statement whose condition is always false");
+                        removedCount++;
+                        statements.remove(i--);
+                    } else {
+                        // keep only the values the block leaves alone
+                        HashMap<Symbol, String> inside = new HashMap<>(known);
+                        block(body, inside);
+                        known.entrySet().removeIf(entry -> !entry.getValue().equals(inside.get(entry.getKey())));
+                    }
+                    break;
+                }
+
+                case "WhileStatement": {
+                    Node body = children.get(children.size() - 1);
+
+                    // the condition and body also run after every trip around the loop
+                    HashSet<Symbol> changed = new HashSet<>();
+                    findAssigned(body, changed);
+                    known.keySet().removeAll(changed);
+
+                    ArrayList<Node> condition = fold(children.subList(0, children.size() - 1), statement, known, false);
+                    replace(statement, children.subList(0, 0), condition, body);
+
+                    if(isConstant(condition, "false")) {
+                        log("DEBUG", "removing while loop whose condition is always false");
+                        removedCount++;
+                        statements.remove(i--);
+                    } else {
+                        block(body, new HashMap<>(known));
+                    }
+                    break;
+                }
+
+                case "Block":
+                    block(statement, known);
+                    break;
+
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * folds a flattened expression: sums, ids with known values, and a single comparison
+     * @param expr Nodes of the expression, in order
+     * @param parent statement the expression belongs to
+     * @param known constant value of each variable known before the expression
+     * @param printed true if the expression is printed (boolean ids are printed as 0 or 1,
+     *      so they are not replaced by true or false)
+     * @return Nodes of the folded expression
+     */
+    private ArrayList<Node> fold(List<Node> expr, Node parent, HashMap<Symbol, String> known, boolean printed) {
+        ArrayList<Node> folded = new ArrayList<>();
+        ArrayList<Node> operators = new ArrayList<>();
+        ArrayList<Node> last = null;
+
+        // each side of a comparison is folded on its own
+        int start = 0;
+        for(int i = 0; i <= expr.size(); i++) {
+            if(i == expr.size() || isComparison(expr.get(i))) {
+                last = foldSum(expr.subList(start, i), parent, known, printed);
+                folded.addAll(last);
+                if(i < expr.size()) {
+                    operators.add(expr.get(i));
+                    folded.add(expr.get(i));
+                }
+                start = i + 1;
+            }
+        }
+
+        // a comparison of two constants is known at compile time
+        if(operators.size() == 1) {
+            Node left = folded.get(0);
+            Node right = folded.get(folded.size() - 1);
+            if(folded.size() == 3 && left.getSymbol() == null && right.getSymbol() == null) {
+                boolean equal = left.getValue().equals(right.getValue());
+                boolean result = operators.get(0).getValue().equals("==") ? equal : !equal;
+                foldedCount++;
+                folded.clear();
+                folded.add(new Node(Boolean.toString(result), parent));
+            }
+        }
+        return folded;
+    }
+
+    /**
+     * folds the constant terms of a sum, or replaces a lone id with its known value
+     * @param terms Nodes of the sum (terms separated by +)
+     * @param parent statement the sum belongs to
+     * @param known constant value of each variable known before the sum
+     * @param printed true if the sum is printed
+     * @return Nodes of the folded sum (a constant, followed by + and any ids left)
+     */
+    private ArrayList<Node> foldSum(List<Node> terms, Node parent, HashMap<Symbol, String> known, boolean printed) {
+        ArrayList<Node> folded = new ArrayList<>();
+
+        if(terms.size() == 1) {
+            Node term = terms.get(0);
+            String value = valueOf(term, known);
+            if(term.getSymbol() != null && value != null && !(printed && term.getSymbol().getType().equals("boolean"))) {
+                propagatedCount++;
+                folded.add(new Node(value, parent));
+            } else {
+                folded.add(term);
+            }
+            return folded;
+        }
+
+        int sum = 0;
+        ArrayList<Node> ids = new ArrayList<>();
+        for(int i = 0; i < terms.size(); i += 2) {
+            Node term = terms.get(i);
+            String value = valueOf(term, known);
+            if(value != null && getType(value).equals("int")) {
+                if(term.getSymbol() != null) {
+                    propagatedCount++;
+                }
+                sum = (sum + Integer.parseInt(value)) & 0xFF;
+            } else if(term.getSymbol() != null && term.getSymbol().getType().equals("int")) {
+                ids.add(term);
+            } else {
+                // not an integer sum, leave it alone
+                folded.addAll(terms);
+                return folded;
+            }
+        }
+
+        if(sum != 0 || ids.isEmpty()) {
+            folded.add(new Node(Integer.toString(sum), parent));
+        }
+        for(Node id : ids) {
+            if(!folded.isEmpty()) {
+                folded.add(new Node("+", parent));
+            }
+            folded.add(id);
+        }
+        if(folded.size() < terms.size()) {
+            foldedCount++;
+        }
+        return folded;
+    }
+
+    /**
+     * getter for the constant value of an expression Node
+     * @param node literal or id Node
+     * @param known constant value of each variable known at the Node
+     * @return value of a literal, known value of an id, or null if not known
+     */
+    private String valueOf(Node node, HashMap<Symbol, String> known) {
+        if(node.getSymbol() != null) {
+            return known.get(node.getSymbol());
+        } else if(node.hasChildren() || node.getValue().equals("+") || isComparison(node)) {
+            return null;
+        }
+        return node.getValue();
+    }
+
+    /**
+     * replaces the expression Nodes of a statement
+     * @param statement statement Node
+     * @param before children kept in front of the expression
+     * @param expr new expression Nodes
+     * @param after child kept after the expression (null if none)
+     */
+    private void replace(Node statement, List<Node> before, ArrayList<Node> expr, Node after) {
+        ArrayList<Node> children = new ArrayList<>(before);
+        children.addAll(expr);
+        if(after != null) {
+            children.add(after);
+        }
+        statement.getChildren().clear();
+        statement.getChildren().addAll(children);
+    }
+
+    /**
+     * finds every variable assigned to within a subtree
+     * @param node root of subtree
+     * @param assigned set to add the Symbol of each assigned variable to
+     */
+    private void findAssigned(Node node, HashSet<Symbol> assigned) {
+        if(node.getValue().equals("AssignmentStatement")) {
+            assigned.add(node.getChildren().get(0).getSymbol());
+        }
+        for(Node child : node.getChildren()) {
+            findAssigned(child, assigned);
+        }
+    }
+
+    /**
+     * checks if a folded condition is a constant
+     * @param condition Nodes of the condition
+     * @param value "true" or "false"
+     * @return true if the condition is only that value
+     */
+    private boolean isConstant(ArrayList<Node> condition, String value) {
+        return condition.size() == 1 && condition.get(0).getSymbol() == null && condition.get(0).getValue().equals(value);
+    }
+
+    /**
+     * checks if a Node is a comparison operator
+     * @param node expression Node
+     * @return true if == or !=
+     */
+    private boolean isComparison(Node node) {
+        return Pattern.matches("==|!=", node.getValue()) && node.getSymbol() == null;
+    }
+
+    /**
+     * logs formatted debug message (only if verbose mode is enabled)
+     * @param alert type of alert
+     * @param msg specific message
+     */
+    public void log(String alert, String msg) {
+        super.log(alert, "AST Optimizer", msg);
+    }
+}
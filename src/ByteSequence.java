@@ -0,0 +1,71 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only CharSequence view over a range of bytes in a ByteBuffer
+ * each byte is read as a single ISO-8859-1 character, so the Lexer can scan
+ *      a memory-mapped file directly without copying it into Strings
+ */
+public class ByteSequence implements CharSequence {
+
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+
+    /**
+     * constructor for ByteSequence
+     * @param buffer buffer holding the bytes
+     * @param offset index of the first byte in the buffer
+     * @param length number of bytes in the view
+     */
+    public ByteSequence(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * getter for length of view
+     * @return number of characters
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * returns character at given index (absolute read, safe to share between threads)
+     * @param index index within the view
+     * @return character at index
+     */
+    public char charAt(int index) {
+        if(index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    /**
+     * returns a view over part of this view without copying
+     * @param start index of first character (inclusive)
+     * @param end index of last character (exclusive)
+     * @return ByteSequence over the range
+     */
+    public CharSequence subSequence(int start, int end) {
+        if(start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("range [" + start + ", " + end + "), length " + length);
+        }
+        return new ByteSequence(buffer, offset + start, end - start);
+    }
+
+    /**
+     * copies the view into a String
+     * @return contents of the view
+     */
+    public String toString() {
+        byte[] bytes = new byte[length];
+        for(int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
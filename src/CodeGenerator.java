@@ -1,5 +1,5 @@
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.List;
 import java.util.regex.Pattern;
 
 /**
@@ -9,46 +9,44 @@ import java.util.regex.Pattern;
  */
 public class CodeGenerator extends Component {
 
+    private int errorCount;
     private int warningCount;
 
-    private int byteCount;      // number of bytes used
-    private int endOfHeap;      // undex of byte marking the end of the heap
-
     private SyntaxTree AST;
     private SymbolTable symbolTable;
-    private SyntaxTree scopeTree;
 
-    // array of strings (can also store temp values), size 256 MAX (bytes)
-    private ArrayList<String> executableImage;
-    private String opcodes;
+    // code is emitted as bytes, then linked into the executable image with the heap
+    private Emitter code;
+    private byte[] executableImage;
+    private Node[] sourceMap;       // AST statement each byte of code was generated for
 
     // static table to hold temp addresses
     private VariableTable varTable;
+    private VariableEntry scratch;      // byte for moving a sum from A to Y (added on first use)
 
     // jump distance table
     private JumpTable jumpTable;
 
-    private String storedStrings;
+    // string values, stored at end of memory
+    private Heap heap;
+
+    public CodeGenerator(SyntaxTree ast, SymbolTable t, int programNo, Output output) {
+        super(output);
 
-    public CodeGenerator(SyntaxTree ast, SymbolTable t, SyntaxTree scope, int programNo) {
         // initialize flags and variables
+        errorCount = 0;
         warningCount = 0;
 
         AST = ast;
         symbolTable = t;
-        scopeTree = scope;
 
         varTable = new VariableTable();
         jumpTable = new JumpTable();
-
-        byteCount = 0;
         
         // strings "true" and "false" stored in heap
-        endOfHeap = 244;
-        storedStrings = convertToASCII("false") + convertToASCII("true");
+        heap = new Heap();
 
-        opcodes = "";
-        executableImage = new ArrayList<>(256);
+        code = new Emitter();
 
         log("INFO", "Generating code for program " + Integer.toString(programNo) + "...");
 
@@ -57,21 +55,12 @@ public class CodeGenerator extends Component {
 
         if(success()) {
             log("INFO", "Code generation completed with 0 error(s) and " + warningCount + " warning(s)\n");
-            System.out.println(varTable.toString());
-            System.out.println(jumpTable.toString());
-            printExecutableImage(programNo);
         } else {
-            log("ERROR", "Generated image exceeds maximum storage (256 bytes)\n");
-            log("ERROR", "Code generation failed with 1 error(s) and " + warningCount + " warning(s)\n");
-        }
-    }
-
-    /**
-     * fill all empty space in the execution environment with "00"
-     */
-    private void fill() {
-        while(opcodes.length()/2 < 256) {
-            opcodes += "00";
+            if(errorCount == 0) {
+                log("ERROR", "Generated image exceeds maximum storage (256 bytes)\n");
+                errorCount++;
+            }
+            log("ERROR", "Code generation failed with " + errorCount + " error(s) and " + warningCount + " warning(s)\n");
         }
     }
 
@@ -81,165 +70,188 @@ public class CodeGenerator extends Component {
      */
     private void generate(SyntaxTree ast) {
         Node astRoot = ast.getRoot();
-        ArrayList<Node> children = astRoot.getChildren();
+        List<Node> children = astRoot.getChildren();
 
-        // should just be 0, but save root as local variable for later scope checking
-        Node scopeRoot = scopeTree.getRoot();
-        depthFirstTraversal(children, Integer.parseInt(scopeRoot.getValue()));
+        depthFirstTraversal(children);
 
         // halt the program (BRK = 00)
-        opcodes += "00";
-        byteCount++;
+        code.setSource(astRoot);
+        code.emitBRK();
 
-        // calculate real addresses and replace temporary addresses (backpatching)
-        calculateRealAddresses();
+        if(errorCount > 0) {
+            executableImage = null;
+            return;
+        }
 
-        // replace temporary jump values with actual values (^^^)
-        calculateJumpAddresses();
+        // share static bytes between variables that are never live at the same time
+        int statics = new StaticAllocator(AST).allocate(varTable);
+        int variables = varTable.getTable().size();
+        log("INFO", "Static area uses " + statics + " byte(s) for " + variables + " variable(s), " + (variables - statics) + " byte(s) saved");
 
-        // fill remaining bytes with 00s
-        fill();
+        // clean up the code while addresses and jump distances are still symbolic
+        PeepholeOptimizer peephole = new PeepholeOptimizer(code);
+        log("INFO", "Peephole optimizer: " + peephole);
 
-        // add string values at end of heap
-        opcodes = opcodes.substring(0, (endOfHeap-1)*2) + storedStrings;
+        // resolve static variable addresses (stored right after the code) and jump distances
+        code.link(code.size(), jumpTable);
 
-        fill();
-        
-        // separate and split into array for easier formatted printing and checking
-        opcodes = opcodes.replaceAll("..(?!$)", "$0 ");
-        executableImage = new ArrayList<>(Arrays.asList(opcodes.split(" ")));
+        // code and static variables have to end before the heap starts
+        if(code.size() + statics > heap.getStart()) {
+            executableImage = null;
+            return;
+        }
+
+        // unused bytes are left as 00s, string values are at end of heap
+        executableImage = new byte[Heap.SIZE];
+        code.copyTo(executableImage);
+        heap.copyTo(executableImage);
+
+        sourceMap = new Node[Heap.SIZE];
+        code.copySourcesTo(sourceMap);
     }
 
     /**
      * performs depth-first in-order traversal on AST to generate opcodes
+     * ids are resolved through the Symbol the semantic analyzer attached to each id Node
      * @param children children to traverse
-     * @param scope current scope to lookup ids
      */
-    private void depthFirstTraversal(ArrayList<Node> children, int scope) {
+    private void depthFirstTraversal(List<Node> children) {
 
         for(Node child : children) {
             String val = child.getValue();
 
             // branch node
             if(child.hasChildren()) {
-                ArrayList<Node> grandchildren = child.getChildren();
+                List<Node> grandchildren = child.getChildren();
+                code.setSource(child);
                 
                 if(val.equals("PrintStatement")) {
                     log("DEBUG", "generating code for print statement");
                     // get item to be printed
-                    String toPrint = grandchildren.get(0).getValue();
-
-                    if(Pattern.matches("[a-z]", toPrint)) {
+                    Node printed = grandchildren.get(0);
+                    String toPrint = printed.getValue();
+
+                    if(hasComparator(grandchildren)) {
+                        // print "true" or "false" for a comparison
+                        Label done = code.newLabel();
+                        Boolean constant = compare(grandchildren, Heap.FALSE_ADDRESS, Heap.TRUE_ADDRESS, true, done);
+                        if(constant != null) {
+                            code.emitLDYConst(constant ? Heap.TRUE_ADDRESS : Heap.FALSE_ADDRESS);
+                        }
+                        code.bind(done);
+                        code.emitLDXConst(2);
+                        code.emitSYS();
+                    } else if(grandchildren.size() > 2) {
+                        // print sum of integers
+                        ArrayList<VariableEntry> ids = new ArrayList<>();
+                        int constant = addConstants(grandchildren, ids);
+
+                        if(ids.isEmpty()) {
+                            code.emitLDYConst(constant);
+                        } else {
+                            // no transfer from A to Y, so the sum goes through memory
+                            emitSum(constant, ids);
+                            code.emitSTA(getScratch());
+                            code.emitLDY(getScratch());
+                        }
+                        code.emitLDXConst(1);
+                        code.emitSYS();
+                    } else if(printed.getSymbol() != null) {
                         // print contents of id
-                        opcodes += "AC"; // load Y reg with temp address
-                        opcodes += varTable.lookup(toPrint, scope).getTempAddress();
+                        code.emitLDY(varTable.lookup(printed.getSymbol())); // load Y reg with temp address
 
-                        if(symbolTable.lookup(toPrint, "string") != null) {
-                            opcodes += "A202FF"; // load X reg with const "02" and print (string)
+                        if(printed.getSymbol().getType().equals("string")) {
+                            code.emitLDXConst(2); // load X reg with const "02" and print (string)
                         } else {
-                            opcodes += "A201FF"; // load X reg with const "01" and print (int or bool)
+                            code.emitLDXConst(1); // load X reg with const "01" and print (int or bool)
                         }
-                        byteCount += 6;
-                    } else if (Pattern.matches("[0-9]", toPrint)) {
-                        // print const digit
-                        // load Y reg with const digit, load X reg with const "01", and print
-                        opcodes += "A00" + Integer.toHexString(Integer.parseInt(toPrint)).toUpperCase() + "A201FF";
-                        byteCount += 5;
+                        code.emitSYS();
+                    } else if (Pattern.matches("\\d+", toPrint)) {
+                        // print const integer
+                        // load Y reg with const integer, load X reg with const "01", and print
+                        code.emitLDYConst(Integer.parseInt(toPrint));
+                        code.emitLDXConst(1);
+                        code.emitSYS();
                     } else if (Pattern.matches("true", toPrint)) {
                         // print "true" (stored at 0xFB)
-                        // load Y reg with address FB 00, load X reg with const "02", and print
-                        opcodes += "ACFB00A202FF";
-                        byteCount += 6;
+                        // load Y reg with address FB, load X reg with const "02", and print
+                        code.emitLDYConst(Heap.TRUE_ADDRESS);
+                        code.emitLDXConst(2);
+                        code.emitSYS();
                     } else if (Pattern.matches("false", toPrint)) {
                         // print "false" (stored at 0xF5)
-                        // load Y reg with address F5 00, load X reg with const "02", and print
-                        opcodes += "ACF500A202FF";
-                        byteCount += 6;
+                        // load Y reg with address F5, load X reg with const "02", and print
+                        code.emitLDYConst(Heap.FALSE_ADDRESS);
+                        code.emitLDXConst(2);
+                        code.emitSYS();
                     } else {
                         // print const string = add to heap, print from mem
-                        // add new string value onto front of heap (heap works from bottom up)
-                        endOfHeap -= (toPrint.length()-1);
-                        storedStrings = convertToASCII(toPrint) + storedStrings;
-
                         // load Y reg with new string location pointer, load X red with const "02", and print
-                        opcodes += "AC";
-                        opcodes += Integer.toHexString(endOfHeap-1).toUpperCase();
-                        opcodes += "A202FF";
-                        byteCount += 5;
+                        code.emitLDYConst(heap.allocate(toPrint));
+                        code.emitLDXConst(2);
+                        code.emitSYS();
                     }
 
                 } else if(val.equals("IfStatement")) {
                     log("DEBUG", "generating code for if statement");
-                    if(grandchildren.size() > 2) { // value, comparator, value, block
-                        int bytesBefore = byteCount;
-                        compare(grandchildren.get(0), grandchildren.get(2), grandchildren.get(1).getValue().equals("=="));
-                        
-                        String jump = "J"+jumpTable.getTable().size();
-                        opcodes += jump;
-                        byteCount++;
-
-                        jumpTable.addEntry(jump, Integer.toHexString(byteCount-bytesBefore).toUpperCase());
-                    } else { // value, block
-                        // boolean value
-                        boolean bool = Boolean.parseBoolean(grandchildren.get(0).getValue());
-
-                        if(bool) {
-                            // always true
-                            opcodes += "A201ECFF00D000";
-                            byteCount += 8;
-                            depthFirstTraversal(grandchildren.get(4).getChildren(), scope++);
+                    // condition, then block
+                    List<Node> condition = grandchildren.subList(0, grandchildren.size() - 1);
+                    Node body = grandchildren.get(grandchildren.size() - 1);
 
-                        } else {
-                            // otherwise, dead code
-                            log("WARNING", "Dead code detected. Code block within if statement will not be executed.");
-                            warningCount++;
-                        }
+                    // skip over block if condition is false
+                    Label end = code.newLabel();
+                    Boolean constant = branchIfFalse(condition, end);
+
+                    if(Boolean.FALSE.equals(constant)) {
+                        log("WARNING", "Dead code detected. Code block within if statement will not be executed.");
+                        warningCount++;
+                    } else {
+                        depthFirstTraversal(body.getChildren());
                     }
+                    code.bind(end);
                 } else if (val.equals("WhileStatement")) {
                     log("DEBUG", "generating code for while statement");
-                    if(grandchildren.size() > 2) { // value, comparator, value, block
-                        compare(grandchildren.get(0), grandchildren.get(2), grandchildren.get(1).getValue().equals("=="));
-                    } else { // value, block
-                        // boolean value
-                        boolean bool = Boolean.parseBoolean(grandchildren.get(0).getValue());
-
-                        if(bool) {
-                            // always true
+                    // condition, then block
+                    List<Node> condition = grandchildren.subList(0, grandchildren.size() - 1);
+                    Node body = grandchildren.get(grandchildren.size() - 1);
+
+                    // condition is checked at the top of every trip around the loop
+                    Label top = code.newLabel();
+                    Label end = code.newLabel();
+                    code.bind(top);
+                    Boolean constant = branchIfFalse(condition, end);
+
+                    if(Boolean.FALSE.equals(constant)) {
+                        log("WARNING", "Dead code detected. Code block within while loop will not be executed.");
+                        warningCount++;
+                    } else {
+                        if(Boolean.TRUE.equals(constant)) {
                             log("WARNING", "Infinite loop detected. Run generated image with caution.");
                             warningCount++;
-
-                            opcodes += "A201ECFF00D0J" + jumpTable.getTable().size() + "XX";
-
-                            int bytesBefore = byteCount;
-                            byteCount += 8;
-                            
-                            depthFirstTraversal(grandchildren.get(4).getChildren(), scope++);
-                            int difference = byteCount - bytesBefore;
-
-                            jumpTable.addEntry("J"+jumpTable.getTable().size(), Integer.toHexString(difference).toUpperCase());
-
-                        } else {
-                            // otherwise, dead code
-                            log("WARNING", "Dead code detected. Code block within while loop will not be executed.");
-                            warningCount++;
                         }
+                        depthFirstTraversal(body.getChildren());
+
+                        // back edge
+                        code.setSource(child);
+                        emitJump(top);
                     }
+                    code.bind(end);
                 } else if (val.equals("VarDecl")) {
-                    // initialize variable with id name and scope
+                    // initialize variable with its declaration
                     String type = grandchildren.get(0).getValue();
-                    String id = grandchildren.get(1).getValue();
+                    Symbol id = grandchildren.get(1).getSymbol();
 
                     // add variable entry to table
-                    varTable.addEntry(id, scope);
-                    log("DEBUG", "generating code to initialize variable " + id + " at scope " + scope);
+                    varTable.addEntry(id);
+                    log("DEBUG", "generating code to initialize variable " + id.getName() + " at scope " + id.getScope().getId());
 
                     // assign ids with default values
                     if(type.equals("int")) {
-                        assignInt(id, 0, scope); // int default value = 00
+                        assignInt(id, 0); // int default value = 00
                     } else if (type.equals("boolean")) {
-                        assignBoolean(id, false, scope); // boolean default value = 00
+                        assignBoolean(id, false); // boolean default value = 00
                     } else if (type.equals("string")) {
-                        assignString(id, "", scope);
+                        assignString(id, "");
                     } else {
                         log("ERROR", "If you are reading this message something is very broken."); break;
                     }
@@ -247,326 +259,390 @@ public class CodeGenerator extends Component {
                 } else if (val.equals("AssignmentStatement")) {
                     log("DEBUG", "generating code for assignment statement");
                     // checks if the id is being assigned to an expr
-                    if(grandchildren.size() > 2 && grandchildren.get(2).getValue().equals("+")) {
-                        // increment id
-                        // either index 1 or index 3 is the id, the other is the digit
+                    List<Node> assigned = grandchildren.subList(1, grandchildren.size());
+                    if(grandchildren.size() > 2 && !hasComparator(assigned)) {
+                        // add every term into the accumulator, then store the sum
+                        ArrayList<VariableEntry> ids = new ArrayList<>();
+                        int constant = addConstants(assigned, ids);
+
+                        emitSum(constant, ids);
+                        code.emitSTA(varTable.lookup(grandchildren.get(0).getSymbol()));
+                    } else if(grandchildren.size() > 2) {
+                        // comparison, store true (01) or false (00)
+                        Label done = code.newLabel();
+                        Boolean constant = compare(assigned, 0, 1, false, done);
+                        if(constant != null) {
+                            code.emitLDAConst(constant ? 1 : 0);
+                        }
+                        code.bind(done);
+                        code.emitSTA(varTable.lookup(grandchildren.get(0).getSymbol()));
                     } else {
                         // get id, value to be assigned, and find type of new value
                         // type checking has already occured, so type is only used to determine which
                         // method of assignment is used
-                        String id = grandchildren.get(0).getValue();
-                        String newValue = grandchildren.get(1).getValue();
-                        String newValueType = getType(newValue);
-
-                        switch (newValueType) {
-                            case "int": assignInt(id, Integer.parseInt(newValue), scope); break;
-                            case "boolean": assignBoolean(id, Boolean.parseBoolean(newValue), scope); break;
-                            case "string": assignString(id, newValue, scope); break;
-                            default: log("ERROR", "If you are reading this message something is very broken."); break;
+                        Symbol id = grandchildren.get(0).getSymbol();
+                        Node value = grandchildren.get(1);
+                        String newValue = value.getValue();
+
+                        if(value.getSymbol() != null) {
+                            // copy contents of another id
+                            assignId(id, value.getSymbol());
+                        } else {
+                            switch (getType(newValue)) {
+                                case "int": assignInt(id, Integer.parseInt(newValue)); break;
+                                case "boolean": assignBoolean(id, Boolean.parseBoolean(newValue)); break;
+                                case "string": assignString(id, newValue); break;
+                                default: log("ERROR", "If you are reading this message something is very broken."); break;
+                            }
                         }
                     }
 
                 } else { 
-                    // Block
-                    depthFirstTraversal(grandchildren, scope++);
+                    // Block, scoped by the table the semantic analyzer put on it
+                    log("DEBUG", "generating code for block at scope " + child.getScope().getId());
+                    depthFirstTraversal(grandchildren);
                 }
             } // leaf node
         }
     }
 
     /**
-     * comparison between left and right nodes
-     * @param left left node
-     * @param right right node
-     * @param equal true if comparator is "==", false if comparator is "!="
+     * emits code that falls through when a condition is true and branches to a label when it is false
+     * @param condition Nodes of the condition (true, false, or a comparison)
+     * @param target label to branch to if the condition is false
+     * @return value of the condition if it is known at compile time (nothing is emitted), otherwise null
      */
-    private void compare(Node left, Node right, boolean equal){
-        String compareEqual = "";
-        boolean firstPass = true;
-        Node[] nodes = {left, right};
-        char c = 'A';
-    
-        for(Node n : nodes) {
-          c++;
-    
-          // Compare integers
-          if (Pattern.matches("\\d+", n.getValue())) {
-            if(firstPass) {
-              compareEqual += "A2";
-            }
-            compareEqual += String.format("%02X", Integer.parseInt(n.getValue()));
-    
-            // Compare strings
-          } /*else if (Pattern.matches("\\[[a-z]*]", n.getValue())) {
-            if(firstPass) {
-              compareEqual += "AE";
-            }
-            initializeVar(c, AST.getDepth(n)-1);
-            assignString(c, n.getValue(), AST.getDepth(n)-1);
-            compareEqual += varTable.getTemp(c, AST.getDepth(n)-1);
-    
-            // Compare booleans
-          }*/ else if (Pattern.matches("true|false", n.getValue())) {
-            if(firstPass) {
-              compareEqual += "A2";
-            }
-            int bool = 0;
-            if(n.getValue().equals("true")) {
-              bool = 1;
-            }
-    
-            compareEqual += String.format("%02X", bool);
-    
-            // Compare variables
-          } /*else if (Pattern.matches("[a-z]", n.getValue())) {
-            if(firstPass) {
-              compareEqual += "AE";
-            }
-            compareEqual += varTable.lookup(n.getValue(), AST.getDepth(n)).getTempAddress();
-          } */
-          if(firstPass) {
-            compareEqual += "EC";
-          }
-          firstPass = false;
+    private Boolean branchIfFalse(List<Node> condition, Label target) {
+        if(condition.size() == 1) {
+            return Boolean.parseBoolean(condition.get(0).getValue());
         }
-        compareEqual += "D0";
-        if(!equal) {
-          compareEqual += "20";
+
+        Boolean constant = compare(condition);
+        if(constant != null || comparator(condition) < 0) {
+            return constant;
+        }
+
+        if(condition.get(comparator(condition)).getValue().equals("==")) {
+            // not equal, skip over
+            code.emitBNE(target);
+        } else {
+            // only BNE exists, so not equal branches into the block and equal jumps over it
+            Label body = code.newLabel();
+            code.emitBNE(body);
+            emitJump(target);
+            code.bind(body);
         }
-    
-        byteCount += compareEqual.length() / 2;
-        opcodes += compareEqual;
-      }
+        return null;
+    }
 
     /**
-     * assigns given int value to specified variable
-     * @param id name of id that value will be assigned to
-     * @param str int value that will be assigned to id
-     * @param scope scope of id for lookup
+     * emits code that loads the accumulator (or Y) with one of two values depending on a comparison
+     * @param comparison Nodes of the comparison
+     * @param falseValue value loaded if the comparison is false
+     * @param trueValue value loaded if the comparison is true
+     * @param print true to load Y (for a print), false to load the accumulator
+     * @param done label the caller binds after the load, where both values meet
+     * @return value of the comparison if it is known at compile time (nothing is emitted), otherwise null
      */
-    private void assignInt(String id, int digit, int scope) {
-        opcodes += "A9";        // load accumulator
-        opcodes += "0" + digit; // with specified digit
+    private Boolean compare(List<Node> comparison, int falseValue, int trueValue, boolean print, Label done) {
+        Boolean constant = compare(comparison);
+        if(constant != null || comparator(comparison) < 0) {
+            return constant;
+        }
 
-        opcodes += "8D"; // store accumulator contents at specified address in little endian format
+        // Z is set if the two sides are equal, and loads do not change it
+        boolean equal = comparison.get(comparator(comparison)).getValue().equals("==");
+        int notEqual = equal ? falseValue : trueValue;
+        int isEqual = equal ? trueValue : falseValue;
 
-        opcodes += varTable.lookup(id, scope).getTempAddress(); // find temp address and add it to opcodes
+        if(print) {
+            code.emitLDYConst(notEqual);
+            code.emitBNE(done);
+            code.emitLDYConst(isEqual);
+        } else {
+            code.emitLDAConst(notEqual);
+            code.emitBNE(done);
+            code.emitLDAConst(isEqual);
+        }
+        return null;
+    }
+
+    /**
+     * compares the two sides of a comparison, setting the Z flag if they are equal
+     * one side is loaded into X (an immediate if it is a constant) and the other is compared
+     *      from memory, with a sum computed into the scratch byte first
+     * booleans compare as 01 and 00, and strings compare by address (equal strings share one in the heap)
+     * @param comparison Nodes of the comparison (left side, == or !=, right side)
+     * @return true or false if both sides are constants (nothing is emitted), otherwise null
+     */
+    private Boolean compare(List<Node> comparison) {
+        int op = comparator(comparison);
+        if(op < 0) {
+            // the AST does not keep the parentheses of nested comparisons
+            log("ERROR", "Nested boolean expressions are not supported.");
+            errorCount++;
+            return null;
+        }
+        List<Node> left = comparison.subList(0, op);
+        List<Node> right = comparison.subList(op + 1, comparison.size());
+        boolean equal = comparison.get(op).getValue().equals("==");
+
+        Integer leftConstant = constantOf(left);
+        Integer rightConstant = constantOf(right);
+        if(leftConstant != null && rightConstant != null) {
+            return leftConstant.equals(rightConstant) == equal;
+        }
 
-        byteCount += 5; // increment byte count with # of bytes used for above opcodes
+        // a variable (or else a sum) is compared from memory, the other side goes into X
+        List<Node> memory = right;
+        List<Node> x = left;
+        if(rightConstant != null || (variableOf(right) == null && variableOf(left) != null)) {
+            memory = left;
+            x = right;
+        }
+        Integer xConstant = constantOf(x);
+
+        if(xConstant == null && variableOf(x) == null) {
+            loadSum(x);
+            code.emitSTA(getScratch());
+            code.emitLDX(getScratch());
+        }
+
+        VariableEntry memoryVariable = variableOf(memory);
+        if(memoryVariable == null) {
+            loadSum(memory);
+            code.emitSTA(getScratch());
+            memoryVariable = getScratch();
+        }
+
+        if(xConstant != null) {
+            code.emitLDXConst(xConstant);
+        } else if(variableOf(x) != null) {
+            code.emitLDX(variableOf(x));
+        }
+        code.emitCPX(memoryVariable);
+        return null;
     }
 
     /**
-     * assigns given boolean value to specified variable
-     * @param id name of id that value will be assigned to
-     * @param str boolean value that will be assigned to id
-     * @param scope scope of id for lookup
+     * checks if an expression is a comparison rather than a sum (either side may be a sum)
+     * @param expr Nodes of the expression
+     * @return true if there is an == or != (nested comparisons are reported by compare)
      */
-    private void assignBoolean(String id, boolean value, int scope) {
-        opcodes += "A9"; // load accumulator
+    private boolean hasComparator(List<Node> expr) {
+        for(Node node : expr) {
+            String value = node.getValue();
+            if(node.getSymbol() == null && (value.equals("==") || value.equals("!="))) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        if(value) {
-            opcodes += "01";  // true
-        } else {
-            opcodes += "00";  // false
+    /**
+     * finds the comparator of a comparison
+     * @param comparison Nodes of the comparison
+     * @return index of the only == or != (-1 if there is more than one)
+     */
+    private int comparator(List<Node> comparison) {
+        int op = -1;
+        for(int i = 0; i < comparison.size(); i++) {
+            String value = comparison.get(i).getValue();
+            if(comparison.get(i).getSymbol() == null && (value.equals("==") || value.equals("!="))) {
+                if(op >= 0) {
+                    return -1;
+                }
+                op = i;
+            }
         }
+        return op;
+    }
 
-        opcodes += "8D"; // store accumulator contents
-        opcodes += varTable.lookup(id, scope).getTempAddress(); // find temp address and add it to opcodes
+    /**
+     * getter for the value of a constant side of a comparison
+     * @param side Nodes of one side
+     * @return integer, 01/00 for a boolean, or heap address for a string (null if not constant)
+     */
+    private Integer constantOf(List<Node> side) {
+        if(side.size() > 1) {
+            ArrayList<VariableEntry> ids = new ArrayList<>();
+            int constant = addConstants(side, ids);
+            return ids.isEmpty() ? Integer.valueOf(constant) : null;
+        }
 
-        // increment bytes used
-        byteCount += 5;
+        Node node = side.get(0);
+        if(node.getSymbol() != null) {
+            return null;
+        }
+        switch(getType(node.getValue())) {
+            case "int": return Integer.parseInt(node.getValue()) & 0xFF;
+            case "boolean": return node.getValue().equals("true") ? 1 : 0;
+            default: return heap.allocate(node.getValue());
+        }
     }
 
     /**
-     * assigns given string value to specified variable
-     * @param id name of id that value will be assigned to
-     * @param str String value that will be assigned to id
-     * @param scope scope of id for lookup
+     * getter for the static variable of a side of a comparison that is a single id
+     * @param side Nodes of one side
+     * @return static variable, or null if the side is not a single id
      */
-    private void assignString(String id, String str, int scope) {
-        opcodes += "A9"; // load accumulator
-
-        if(!str.isEmpty()) {
-            // add new string value onto front of heap (heap works from bottom up)
-            endOfHeap -= (str.length()-1);
-            storedStrings = convertToASCII(str) + storedStrings;
-            opcodes += Integer.toHexString(endOfHeap-1).toUpperCase();
-        } else {             // if string is empty (either default value for vardecl or just assigned an empty string),
-            opcodes += "FF"; // point to the last byte, which is always a "00" since it terminates the heap
+    private VariableEntry variableOf(List<Node> side) {
+        if(side.size() == 1 && side.get(0).getSymbol() != null) {
+            return varTable.lookup(side.get(0).getSymbol());
         }
+        return null;
+    }
 
-        opcodes += "8D";
-        opcodes += varTable.lookup(id, scope).getTempAddress(); // find temp address and add it to opcodes
+    /**
+     * computes a sum in the accumulator
+     * @param terms Nodes of the sum (terms separated by +)
+     */
+    private void loadSum(List<Node> terms) {
+        ArrayList<VariableEntry> ids = new ArrayList<>();
+        int constant = addConstants(terms, ids);
+        emitSum(constant, ids);
+    }
 
-        // increment bytes used
-        byteCount += 5;
+    /**
+     * emits an unconditional branch (X = 01 never equals the 00 at FF, so BNE is always taken)
+     * @param target label to branch to
+     */
+    private void emitJump(Label target) {
+        code.emitLDXConst(1);
+        code.emitCPX(Heap.EMPTY_ADDRESS);
+        code.emitBNE(target);
     }
 
     /**
-     * print executable image in 8x32 grid of bytes
-     * @param programNo program number for output header
+     * adds up the constant terms of a sum at compile time
+     * @param terms Nodes of the sum (terms separated by +)
+     * @param ids list to add the static variable of every id term to
+     * @return sum of the constant terms (wraps around at 256, like ADC)
      */
-    private void printExecutableImage(int programNo) {
-        // print header
-        System.out.println("Program " + programNo + " Executable Image");
-        System.out.println("------------------------------------");
-
-        StringBuilder output = new StringBuilder("");
-
-        // print in 8x32 grid
-        for(int i = 0; i < 256; i++) {
-            output.append(executableImage.get(i) + "\t");
-            if((i + 1) % 8 == 0) {
-                output.append("\n");
+    private int addConstants(List<Node> terms, ArrayList<VariableEntry> ids) {
+        int constant = 0;
+        for(int i = 0; i < terms.size(); i += 2) {
+            Node term = terms.get(i);
+            if(term.getSymbol() != null) {
+                ids.add(varTable.lookup(term.getSymbol()));
+            } else if(Pattern.matches("\\d+", term.getValue())) {
+                constant = (constant + Integer.parseInt(term.getValue())) & 0xFF;
             }
         }
+        return constant;
+    }
 
-        System.out.println(output.toString());
+    /**
+     * computes a sum in the accumulator with one chain of ADCs (no temporaries)
+     * @param constant sum of the constant terms
+     * @param ids static variables added to the constant
+     */
+    private void emitSum(int constant, ArrayList<VariableEntry> ids) {
+        int first = 0;
+        if(constant != 0 || ids.isEmpty()) {
+            code.emitLDAConst(constant);
+        } else {
+            // nothing to add to the first id, so load it
+            code.emitLDA(ids.get(0));
+            first = 1;
+        }
+        for(int i = first; i < ids.size(); i++) {
+            code.emitADC(ids.get(i));
+        }
     }
 
     /**
-     * replaces temporary memory addresses with formatted real addresses
+     * getter for the scratch byte, added to the static table on first use
+     * @return scratch byte
      */
-    private void calculateRealAddresses() {
-        for(VariableEntry entry : varTable.getTable()) {
-            // replace all temp addresses with next available byte address
-            opcodes = opcodes.replaceAll(entry.getTempAddress(), (String.format("%02X", byteCount++)+"00"));
+    private VariableEntry getScratch() {
+        if(scratch == null) {
+            scratch = varTable.addTemp("*");
         }
+        return scratch;
     }
 
     /**
-     * replaces temporary jump addresses with formatted real addresses
+     * assigns given int value to specified variable
+     * @param id declaration of id that value will be assigned to
+     * @param digit int value that will be assigned to id
      */
-    private void calculateJumpAddresses() {
-        jumpTable.getTable().forEach((key, value) -> {
-            opcodes = opcodes.replaceAll(key, value);
-        });
+    private void assignInt(Symbol id, int digit) {
+        code.emitLDAConst(digit);               // load accumulator with specified digit
+        code.emitSTA(varTable.lookup(id));      // store accumulator contents at temp address
     }
 
     /**
-     * converts a string to hex ASCII code to add to heap
-     * @param input string to convert
-     * @return string of ASCII characters (plus 00 terminator)
+     * assigns given boolean value to specified variable
+     * @param id declaration of id that value will be assigned to
+     * @param value boolean value that will be assigned to id
      */
-    private String convertToASCII(String input) {
-        String output = "";
-
-        for(char ch : input.toCharArray()) {
-            switch(ch){
-                // symbols
-                case ' ': output += "20"; break;
-                case '!': output += "21"; break;
-                case '\"': output += "22"; break;
-                case '#': output += "23"; break;
-                case '$': output += "24"; break;
-                case '%': output += "25"; break;
-                case '&': output += "26"; break;
-                case '\'': output += "27"; break;
-                case '(': output += "28"; break;
-                case ')': output += "29"; break;
-                case '*': output += "2A"; break;
-                case '+': output += "2B"; break;
-                case ',': output += "2C"; break;
-                case '-': output += "2D"; break;
-                case '.': output += "2E"; break;
-                case '/': output += "2F"; break;
-
-                // digits
-                case '0': output += "30"; break;
-                case '1': output += "31"; break;
-                case '2': output += "32"; break;
-                case '3': output += "33"; break;
-                case '4': output += "34"; break;
-                case '5': output += "35"; break;
-                case '6': output += "36"; break;
-                case '7': output += "37"; break;
-                case '8': output += "38"; break;
-                case '9': output += "39"; break;
-
-                // more symbols
-                case ':': output += "3A"; break;
-                case ';': output += "3B"; break;
-                case '<': output += "3C"; break;
-                case '=': output += "3D"; break;
-                case '>': output += "3E"; break;
-                case '?': output += "3F"; break;
-                case '@': output += "40"; break;
-
-                // uppercase letters
-                case 'A': output += "41"; break;
-                case 'B': output += "42"; break;
-                case 'C': output += "43"; break;
-                case 'D': output += "44"; break;
-                case 'E': output += "45"; break;
-                case 'F': output += "46"; break;
-                case 'G': output += "47"; break;
-                case 'H': output += "48"; break;
-                case 'I': output += "49"; break;
-                case 'J': output += "4A"; break;
-                case 'K': output += "4B"; break;
-                case 'L': output += "4C"; break;
-                case 'M': output += "4D"; break;
-                case 'N': output += "4E"; break;
-                case 'O': output += "4F"; break;
-                case 'P': output += "50"; break;
-                case 'Q': output += "51"; break;
-                case 'R': output += "52"; break;
-                case 'S': output += "53"; break;
-                case 'T': output += "54"; break;
-                case 'U': output += "55"; break;
-                case 'V': output += "56"; break;
-                case 'W': output += "57"; break;
-                case 'X': output += "58"; break;
-                case 'Y': output += "59"; break;
-                case 'Z': output += "5A"; break;
-
-                // even more symbols
-                case '[': output += "5B"; break;
-                case '\\': output += "5C"; break;
-                case ']': output += "5D"; break;
-                case '^': output += "5E"; break;
-                case '_': output += "5F"; break;
-                case '`': output += "60"; break;
-
-                // lowercase letters
-                case 'a': output += "61"; break;
-                case 'b': output += "62"; break;
-                case 'c': output += "63"; break;
-                case 'd': output += "64"; break;
-                case 'e': output += "65"; break;
-                case 'f': output += "66"; break;
-                case 'g': output += "67"; break;
-                case 'h': output += "68"; break;
-                case 'i': output += "69"; break;
-                case 'j': output += "6A"; break;
-                case 'k': output += "6B"; break;
-                case 'l': output += "6C"; break;
-                case 'm': output += "6D"; break;
-                case 'n': output += "6E"; break;
-                case 'o': output += "6F"; break;
-                case 'p': output += "70"; break;
-                case 'q': output += "71"; break;
-                case 'r': output += "72"; break;
-                case 's': output += "73"; break;
-                case 't': output += "74"; break;
-                case 'u': output += "75"; break;
-                case 'v': output += "76"; break;
-                case 'w': output += "77"; break;
-                case 'x': output += "78"; break;
-                case 'y': output += "79"; break;
-                case 'z': output += "7A"; break;
-
-                // other symbols
-                case '{': output += "7B"; break;
-                case '|': output += "7C"; break;
-                case '}': output += "7D"; break;
-                case '~': output += "7E"; break;
-                
-                default: output += "00"; break;
-            }
+    private void assignBoolean(Symbol id, boolean value) {
+        // load accumulator with true (01) or false (00)
+        if(value) {
+            code.emitLDAConst(1);
+        } else {
+            code.emitLDAConst(0);
         }
 
-        return output + "00";
+        code.emitSTA(varTable.lookup(id)); // store accumulator contents
+    }
+
+    /**
+     * assigns given string value to specified variable
+     * @param id declaration of id that value will be assigned to
+     * @param str String value that will be assigned to id
+     */
+    private void assignString(Symbol id, String str) {
+        // load accumulator with pointer to string in heap
+        // (an empty string, either default value for vardecl or just assigned an empty string,
+        //  points to the last byte, which is always a "00" since it terminates the heap)
+        code.emitLDAConst(heap.allocate(str));
+
+        code.emitSTA(varTable.lookup(id));
+    }
+
+    /**
+     * copies the contents of one variable into another
+     * @param id declaration of id that value will be assigned to
+     * @param other declaration of id whose value is copied
+     */
+    private void assignId(Symbol id, Symbol other) {
+        code.emitLDA(varTable.lookup(other));   // load accumulator from memory
+        code.emitSTA(varTable.lookup(id));      // store accumulator contents
+    }
+
+    /**
+     * getter for executable image
+     * @return 256 byte image (code, static variables and heap), or null if generation failed
+     */
+    public byte[] getExecutableImage() {
+        return executableImage;
+    }
+
+    /**
+     * getter for static variable table
+     * @return static data entry of each variable and temp
+     */
+    public VariableTable getVariableTable() {
+        return varTable;
+    }
+
+    /**
+     * getter for jump table
+     * @return jump table
+     */
+    public JumpTable getJumpTable() {
+        return jumpTable;
+    }
+
+    /**
+     * getter for source map
+     * @return AST statement each address of code was generated for (null outside the code),
+     *      or null if generation failed
+     */
+    public Node[] getSourceMap() {
+        return sourceMap;
     }
 
     /**
@@ -575,7 +651,7 @@ public class CodeGenerator extends Component {
      */
     public boolean success() {
         // only error occurs if image exceeds maximum storage (256 bytes)
-        return executableImage.size() <= 256;
+        return executableImage != null;
     }
 
     /**
@@ -0,0 +1,257 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * On-disk cache of compilation results, so unchanged programs are not recompiled
+ * each result (image, diagnostics and failed phase) is a file in the cache directory
+ *      named by the SHA-256 of the compiler version, the front end and the program text
+ *      (so a new compiler never reuses old results, and the fused front end never
+ *      reuses the diagnostics of the separate parser)
+ *
+ * the total size of the files is bounded: the least recently used are deleted first
+ *      once it is exceeded; recency is the file's modified time, which is updated
+ *      on every hit so it carries over between runs
+ * results are written to a temporary file and moved into place, so several
+ *      threads (or compilers) can share a directory; a file that is missing or can
+ *      not be read is a miss
+ */
+public class CompilationCache implements ResultCache {
+
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private static final String SUFFIX = ".result";
+    private static final int MAGIC = 0x43524532;    // "CRE2"
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Path directory;
+    private long maxBytes;
+
+    // size of each file by key, least recently used first
+    private LinkedHashMap<String, Long> entries;
+    private long totalBytes;
+
+    // statistics
+    private int hits;
+    private int misses;
+
+    /**
+     * constructor for CompilationCache, opens (or creates) a cache directory
+     * @param directory name of cache directory
+     * @param maxBytes most bytes of results to keep
+     * @throws IOException if the directory can not be created or listed
+     */
+    public CompilationCache(String directory, long maxBytes) throws IOException {
+        this.directory = Files.createDirectories(Paths.get(directory));
+        this.maxBytes = maxBytes;
+
+        // pick up results of earlier runs, oldest first
+        HashMap<Path, BasicFileAttributes> files = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "*" + SUFFIX)) {
+            for(Path file : stream) {
+                try {
+                    files.put(file, Files.readAttributes(file, BasicFileAttributes.class));
+                } catch (IOException ex) {
+                    // evicted by another compiler while listing
+                }
+            }
+        }
+        ArrayList<Path> byAge = new ArrayList<>(files.keySet());
+        byAge.sort((x, y) -> files.get(x).lastModifiedTime().compareTo(files.get(y).lastModifiedTime()));
+
+        entries = new LinkedHashMap<>(16, 0.75f, true);
+        totalBytes = 0;
+        for(Path file : byAge) {
+            String name = file.getFileName().toString();
+            long size = files.get(file).size();
+            entries.put(name.substring(0, name.length() - SUFFIX.length()), size);
+            totalBytes += size;
+        }
+        evict();
+    }
+
+    /**
+     * computes the cache key of a program
+     * @param program source text of the program
+     * @param fused true if the program is compiled with the fused front end
+     * @return hex SHA-256 of the compiler version, the front end and the program text
+     */
+    public static String key(CharSequence program, boolean fused) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            // every Java platform is required to provide SHA-256
+            throw new IllegalStateException(ex);
+        }
+        digest.update(Compiler.VERSION.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update((fused ? "fused" : "parser").getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(StandardCharsets.UTF_8.encode(CharBuffer.wrap(program)));
+
+        byte[] hash = digest.digest();
+        StringBuilder key = new StringBuilder(hash.length * 2);
+        for(byte b : hash) {
+            key.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        }
+        return key.toString();
+    }
+
+    /**
+     * looks up the result of a program
+     * @param key cache key of the program
+     * @return cached result, or null on a miss
+     */
+    public CompilationResult get(String key) {
+        Path file = directory.resolve(key + SUFFIX);
+        CompilationResult result;
+        long size;
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            size = bytes.length;
+            result = decode(bytes);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ex) {
+            // missing, evicted by another compiler, or not a result
+            synchronized(this) {
+                misses++;
+                Long stale = entries.remove(key);
+                if(stale != null) {
+                    totalBytes -= stale;
+                }
+            }
+            return null;
+        }
+
+        synchronized(this) {
+            hits++;
+            Long old = entries.put(key, size);
+            totalBytes += size - (old == null ? 0 : old);
+        }
+        return result;
+    }
+
+    /**
+     * stores the result of a program, evicting the least recently used results
+     *      if the cache is over its size
+     * @param key cache key of the program
+     * @param result result of compiling the program
+     * @throws IOException if the result can not be written
+     */
+    public void put(String key, CompilationResult result) throws IOException {
+        byte[] bytes = encode(result);
+        Path temp = Files.createTempFile(directory, key, ".tmp");
+        try {
+            Files.write(temp, bytes);
+            Files.move(temp, directory.resolve(key + SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        synchronized(this) {
+            Long old = entries.put(key, (long) bytes.length);
+            totalBytes += bytes.length - (old == null ? 0 : old);
+            evict();
+        }
+    }
+
+    /**
+     * deletes least recently used results until the cache fits its size
+     */
+    private synchronized void evict() {
+        Iterator<Map.Entry<String, Long>> oldest = entries.entrySet().iterator();
+        while(totalBytes > maxBytes && oldest.hasNext()) {
+            Map.Entry<String, Long> entry = oldest.next();
+            try {
+                Files.deleteIfExists(directory.resolve(entry.getKey() + SUFFIX));
+            } catch (IOException ex) {
+                // still counted as gone; it is only a cache
+            }
+            totalBytes -= entry.getValue();
+            oldest.remove();
+        }
+    }
+
+    /**
+     * writes a result as bytes
+     * format: magic, failed phase ("" if compiled), image (if compiled), number of diagnostics, diagnostics
+     * @param result result of compiling a program
+     * @return encoded result
+     */
+    private byte[] encode(CompilationResult result) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Heap.SIZE * 2);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeUTF(result.success() ? "" : result.getFailedPhase());
+        if(result.success()) {
+            out.write(result.getExecutableImage());
+        }
+        out.writeInt(result.getDiagnostics().size());
+        for(String line : result.getDiagnostics()) {
+            out.writeUTF(line);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * reads a result written by encode
+     * @param bytes encoded result
+     * @return decoded result
+     * @throws IOException if the bytes are not a result
+     */
+    private CompilationResult decode(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if(in.readInt() != MAGIC) {
+            throw new IOException("not a compilation result");
+        }
+        String failedPhase = in.readUTF();
+        byte[] image = null;
+        if(failedPhase.isEmpty()) {
+            failedPhase = null;
+            image = new byte[Heap.SIZE];
+            in.readFully(image);
+        }
+        int count = in.readInt();
+        ArrayList<String> diagnostics = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            diagnostics.add(in.readUTF());
+        }
+        return new CompilationResult(image, diagnostics, failedPhase);
+    }
+
+    /**
+     * getter for number of hits
+     * @return programs whose result was found
+     */
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    /**
+     * getter for number of misses
+     * @return programs whose result was not found
+     */
+    public synchronized int getMisses() {
+        return misses;
+    }
+}
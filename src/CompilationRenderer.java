@@ -0,0 +1,109 @@
+/**
+ * Prints a CompilationResult the way the compiler prints a program as it compiles it
+ * only what the result holds is printed, so a result read back from a CompilationCache
+ *      prints its diagnostics, image and outcome, while one from CompilerService
+ *      also prints its trees and tables
+ */
+public class CompilationRenderer {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * prints diagnostics (in verbose mode), trees, tables, image and outcome of a program
+     * @param result result of compiling the program
+     * @param programNo program number for output headers
+     * @param output output buffer for the program
+     */
+    public static void render(CompilationResult result, int programNo, Output output) {
+        if(output.isVerbose()) {
+            for(String line : result.getDiagnostics()) {
+                output.println(line);
+            }
+        }
+        printTrees(result, programNo, output);
+        printOutcome(result, programNo, output);
+    }
+
+    /**
+     * prints the trees, tables and image a result holds
+     * @param result result of compiling the program
+     * @param programNo program number for output headers
+     * @param output output buffer for the program
+     */
+    public static void printTrees(CompilationResult result, int programNo, Output output) {
+        if(!output.isEnabled()) {
+            return;
+        }
+
+        if(result.getCST() != null) {
+            output.println("Program " + programNo + " Concrete Syntax Tree");
+            output.println("------------------------------------");
+            output.println(result.getCST());
+        }
+        if(result.getAST() != null) {
+            output.println("Program " + programNo + " Abstract Syntax Tree");
+            output.println("------------------------------------");
+            output.println(result.getAST());
+        }
+        if(result.getScopeTree() != null) {
+            output.println("Program " + programNo + " Scope Tree");
+            output.println("------------------------------------");
+            output.println(result.getScopeTree());
+        }
+        if(result.getSymbolTable() != null) {
+            output.println("Program " + programNo + " Symbol Table");
+            output.println(result.getSymbolTable());
+        }
+        if(result.getVariableTable() != null) {
+            output.println(result.getVariableTable());
+            output.println(result.getJumpTable());
+        }
+        if(result.success()) {
+            printExecutableImage(result.getExecutableImage(), programNo, output);
+        }
+    }
+
+    /**
+     * prints whether a program compiled, or which phase it failed in
+     * @param result result of compiling the program
+     * @param programNo program number for the message
+     * @param output output buffer for the program
+     */
+    public static void printOutcome(CompilationResult result, int programNo, Output output) {
+        String failed = result.getFailedPhase();
+        if(failed == null) {
+            output.println("INFO - Program " + programNo + " successfully compiled.\n");
+        } else if(failed.equals(CompilationResult.CODE_GENERATION)) {
+            output.errorln("INFO - Code generation failed on program " + programNo + ". Compilation unsuccessful.\n");
+        } else if(failed.equals(CompilationResult.INTERNAL)) {
+            output.errorln("INFO - Program " + programNo + " could not be compiled. Compilation unsuccessful.\n");
+        } else {
+            output.errorln("INFO - " + failed + " failed on program " + programNo + ". Skipping remaining compiler phases.\n");
+        }
+    }
+
+    /**
+     * prints an executable image in 8x32 grid of bytes
+     * @param image 256 byte image
+     * @param programNo program number for output header
+     * @param output output buffer for the program
+     */
+    private static void printExecutableImage(byte[] image, int programNo, Output output) {
+        // print header
+        output.println("Program " + programNo + " Executable Image");
+        output.println("------------------------------------");
+
+        StringBuilder grid = new StringBuilder(Heap.SIZE * 3);
+
+        // print in 8x32 grid, rendering each byte as hex
+        for(int i = 0; i < Heap.SIZE; i++) {
+            int b = image[i] & 0xFF;
+            grid.append(HEX[b >> 4]).append(HEX[b & 0xF]).append('\t');
+            if((i + 1) % 8 == 0) {
+                grid.append('\n');
+            }
+        }
+
+        output.println(grid.toString());
+    }
+}
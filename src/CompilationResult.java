@@ -0,0 +1,202 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of compiling a single program
+ * holds what each phase produced (tokens, trees, tables, executable image) and the
+ *      WARNING and ERROR log lines of every phase, so a program can be compiled
+ *      without printing anything and rendered later (see CompilationRenderer)
+ *
+ * a result is immutable, so it can be shared between threads and kept in a ResultCache:
+ *      the image, diagnostics and source map are copied, and the tokens, trees and
+ *      tables (with their nodes, scopes and symbols) are frozen when the result is made,
+ *      after which changing any of them throws an IllegalStateException (or, for the
+ *      lists and maps they hand out, an UnsupportedOperationException)
+ * results read back from a CompilationCache only hold the image, diagnostics and
+ *      failed phase (everything else is null)
+ */
+public class CompilationResult {
+
+    // phases a program can fail in, as named in the failure message
+    public static final String LEX = "Lex";
+    public static final String PARSE = "Parse";
+    public static final String SEMANTIC_ANALYSIS = "Semantic analyzer";
+    public static final String CODE_GENERATION = "Code generation";
+    public static final String INTERNAL = "Compiler";
+
+    private final TokenBuffer tokens;
+    private final SyntaxTree cst;
+    private final SyntaxTree ast;
+    private final SyntaxTree scopeTree;
+    private final SymbolTable symbolTable;
+    private final VariableTable variableTable;
+    private final JumpTable jumpTable;
+    private final byte[] image;
+    private final Node[] sourceMap;
+    private final List<String> diagnostics;
+    private final String failedPhase;
+
+    /**
+     * constructor for a result holding only the image and diagnostics (as kept on disk)
+     * @param image 256 byte executable image, or null if compilation failed
+     * @param diagnostics WARNING and ERROR log lines, in order
+     * @param failedPhase phase compilation failed in, or null if it succeeded
+     */
+    public CompilationResult(byte[] image, List<String> diagnostics, String failedPhase) {
+        this(null, null, null, null, null, null, null, image, null, diagnostics, failedPhase);
+    }
+
+    /**
+     * constructor for CompilationResult, freezes the tokens, trees and tables it is given
+     * @param tokens tokens recognized by the lexer (null if not kept)
+     * @param cst concrete syntax tree (null if not built)
+     * @param ast abstract syntax tree, after AST optimization (null if not built)
+     * @param scopeTree scope tree (null if not built)
+     * @param symbolTable root of the symbol table (null if not built)
+     * @param variableTable static variable table (null if code was not generated)
+     * @param jumpTable jump table (null if code was not generated)
+     * @param image 256 byte executable image, or null if compilation failed
+     * @param sourceMap AST statement each address was generated for (null if not kept)
+     * @param diagnostics WARNING and ERROR log lines, in order
+     * @param failedPhase phase compilation failed in, or null if it succeeded
+     */
+    public CompilationResult(TokenBuffer tokens, SyntaxTree cst, SyntaxTree ast, SyntaxTree scopeTree, SymbolTable symbolTable,
+            VariableTable variableTable, JumpTable jumpTable, byte[] image, Node[] sourceMap,
+            List<String> diagnostics, String failedPhase) {
+        // the phases are done with these, so they are frozen in place rather than copied
+        if(tokens != null) {
+            tokens.freeze();
+        }
+        for(SyntaxTree tree : new SyntaxTree[] {cst, ast, scopeTree}) {
+            if(tree != null) {
+                tree.freeze();
+            }
+        }
+        if(symbolTable != null) {
+            symbolTable.freeze();
+        }
+        if(variableTable != null) {
+            variableTable.freeze();
+        }
+        if(jumpTable != null) {
+            jumpTable.freeze();
+        }
+        if(sourceMap != null) {
+            for(Node n : sourceMap) {
+                if(n != null) {
+                    n.freeze();
+                }
+            }
+        }
+
+        this.tokens = tokens;
+        this.cst = cst;
+        this.ast = ast;
+        this.scopeTree = scopeTree;
+        this.symbolTable = symbolTable;
+        this.variableTable = variableTable;
+        this.jumpTable = jumpTable;
+        this.image = image == null ? null : image.clone();
+        this.sourceMap = sourceMap == null ? null : sourceMap.clone();
+        this.diagnostics = Collections.unmodifiableList(new ArrayList<>(diagnostics));
+        this.failedPhase = failedPhase;
+    }
+
+    /**
+     * determines if the program compiled
+     * @return true if there is an executable image
+     */
+    public boolean success() {
+        return image != null;
+    }
+
+    /**
+     * getter for failed phase
+     * @return LEX, PARSE, SEMANTIC_ANALYSIS, CODE_GENERATION or INTERNAL, or null if the program compiled
+     */
+    public String getFailedPhase() {
+        return failedPhase;
+    }
+
+    /**
+     * getter for tokens
+     * @return tokens recognized by the lexer (frozen), or null if not kept
+     */
+    public TokenBuffer getTokens() {
+        return tokens;
+    }
+
+    /**
+     * getter for concrete syntax tree
+     * @return CST (frozen), or null if not built
+     */
+    public SyntaxTree getCST() {
+        return cst;
+    }
+
+    /**
+     * getter for abstract syntax tree
+     * @return AST after constant folding and dead branch removal (frozen), or null if not built
+     */
+    public SyntaxTree getAST() {
+        return ast;
+    }
+
+    /**
+     * getter for scope tree
+     * @return scope tree (frozen), or null if not built
+     */
+    public SyntaxTree getScopeTree() {
+        return scopeTree;
+    }
+
+    /**
+     * getter for symbol table
+     * @return root SymbolTable (frozen), or null if not built
+     */
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    /**
+     * getter for static variable table
+     * @return static variable table (frozen), or null if code was not generated
+     */
+    public VariableTable getVariableTable() {
+        return variableTable;
+    }
+
+    /**
+     * getter for jump table
+     * @return jump table (frozen), or null if code was not generated
+     */
+    public JumpTable getJumpTable() {
+        return jumpTable;
+    }
+
+    /**
+     * getter for executable image
+     * @return copy of the 256 byte image, or null if compilation failed
+     */
+    public byte[] getExecutableImage() {
+        return image == null ? null : image.clone();
+    }
+
+    /**
+     * getter for source map
+     * @return copy of the array of AST statements each address was generated for
+     *      (the nodes are frozen), or null if not kept
+     */
+    public Node[] getSourceMap() {
+        return sourceMap == null ? null : sourceMap.clone();
+    }
+
+    /**
+     * getter for diagnostics
+     * @return WARNING and ERROR log lines of every phase (read-only)
+     */
+    public List<String> getDiagnostics() {
+        return diagnostics;
+    }
+}
@@ -1,97 +1,245 @@
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.ArrayList;
-import java.util.Scanner;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * entry point / main program for compiler
+ *
+ * usage: java Compiler [--jobs N] [--mmap] [--fused [--cst]] [--run | --profile]
+ *                      [--cache DIR [--cache-size BYTES]] [--memory-cache ENTRIES [--memory-cache-size BYTES]]
+ *                      [--quiet] file
+ *      --jobs N    number of programs compiled in parallel (default: number of cores)
+ *      --mmap      memory-map the input file and lex programs straight from the mapped bytes
+ *      --fused     parse and semantically analyze each program in a single pass
+ *      --cst       also build and print the concrete syntax tree in fused mode
+ *      --run       execute each compiled image on the virtual machine and print its output
+ *      --profile   --run, then print cycles spent per address, AST statement and kind of statement
+ *      --cache     keep compilation results in DIR and reuse them for programs compiled before
+ *      --cache-size
+ *                  most bytes of results kept in the cache directory (default 16 MiB)
+ *      --memory-cache
+ *                  also keep up to ENTRIES results in memory, in front of --cache if given
+ *      --memory-cache-size
+ *                  most bytes of results kept in memory (default 64 MiB)
+ *      --quiet     only print trees, tables, images and results (no log messages)
  */
 public class Compiler {
 
-    public static void main(String[] args) {        
+    // part of every cache key; change it whenever images or diagnostics change for the same program
+    public static final String VERSION = "2.23";
+
+    public static void main(String[] args) {
+        String fileName = null;
+        int jobs = Runtime.getRuntime().availableProcessors();
+        boolean verbose = true;
+        boolean mapped = false;
+        boolean fused = false;
+        boolean keepCST = false;
+        boolean run = false;
+        boolean profile = false;
+        String cacheDirectory = null;
+        long cacheSize = CompilationCache.DEFAULT_MAX_BYTES;
+        int memoryEntries = 0;
+        long memorySize = MemoryCache.DEFAULT_MAX_BYTES;
+
+        // parse command line options
         try {
-            // read file
-            ArrayList<String> programList = readFile(args[0]);
+            for(int i = 0; i < args.length; i++) {
+                if(args[i].equals("--jobs")) {
+                    jobs = Integer.parseInt(args[++i]);
+                } else if(args[i].equals("--mmap")) {
+                    mapped = true;
+                } else if(args[i].equals("--fused")) {
+                    fused = true;
+                } else if(args[i].equals("--cst")) {
+                    keepCST = true;
+                } else if(args[i].equals("--run")) {
+                    run = true;
+                } else if(args[i].equals("--profile")) {
+                    run = true;
+                    profile = true;
+                } else if(args[i].equals("--cache")) {
+                    cacheDirectory = args[++i];
+                } else if(args[i].equals("--cache-size")) {
+                    cacheSize = Long.parseLong(args[++i]);
+                } else if(args[i].equals("--memory-cache")) {
+                    memoryEntries = Integer.parseInt(args[++i]);
+                } else if(args[i].equals("--memory-cache-size")) {
+                    memorySize = Long.parseLong(args[++i]);
+                } else if(args[i].equals("--quiet")) {
+                    verbose = false;
+                } else {
+                    fileName = args[i];
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException ex) {
+            System.err.println("Options --jobs, --cache-size and --memory-cache(-size) require a number, --cache a directory. Try again.");
+            return;
+        }
 
+        if(fileName == null) {
+            System.err.println("Compiler requires test file to be specified. Enter name of file and try again.");
+            return;
+        }
+
+        try (ProgramSource reader = mapped ? new MappedProgramReader(fileName) : new ProgramReader(fileName)) {
+            CompilationCache disk = cacheDirectory == null ? null : new CompilationCache(cacheDirectory, cacheSize);
+            MemoryCache memory = memoryEntries <= 0 ? null : new MemoryCache(memoryEntries, memorySize, disk);
+            CompilerService service = new CompilerService(memory != null ? memory : disk, fused, keepCST);
             System.out.println("INFO - Compilation started");
 
-            // for each program
-            for(int i = 0; i < programList.size(); i++) {
-
-                int programNo = i+1;
-                System.out.println("INFO - Compiling program " + programNo + "...");
-
-                // do lex
-                Lexer lex = new Lexer(programList.get(i), programNo);
-                
-                if(lex.success()) {
-                    // do parse
-                    Parser parse = new Parser(lex.getTokenStream(), programNo);
-                    
-                    if(parse.success()) {
-                        // do semantic analysis
-                        SemanticAnalyzer analyzer = new SemanticAnalyzer(lex.getTokenStream(), programNo);
-
-                        if(analyzer.success()) {
-                            // generate opcode
-                            CodeGenerator generator = new CodeGenerator(analyzer.getAST(), analyzer.getSymbolTable(), analyzer.getScopeTree(), programNo);
-
-                            if(generator.success()) {
-                                System.out.println("INFO - Program " + programNo + " successfully compiled.\n");
-                            } else {
-                                System.err.println("INFO - Code generation failed on program " + programNo + ". Compilation unsuccessful.\n");
-                            }
-                        } else {
-                            System.err.println("INFO - Semantic analyzer failed on program " + programNo + ". Skipping remaining compiler phases.\n");
-                        }
-                    } else {
-                        System.err.println("INFO - Parse failed on program " + programNo + ". Skipping remaining compiler phases.\n");
-                    }
-                } else {
-                    System.err.println("INFO - Lex failed on program " + programNo + ". Skipping remaining compiler phases.\n");
+            if(jobs <= 1) {
+                // compile and print each program as soon as it has been read
+                int programNo = 0;
+                CharSequence program;
+                while((program = reader.next()) != null) {
+                    programNo++;
+                    compile(program, programNo, verbose, service, run, profile).flush(System.out, System.err);
                 }
+            } else {
+                compileParallel(reader, jobs, verbose, service, run, profile);
+            }
+
+            if(memory != null) {
+                System.out.println("INFO - Memory cache: " + memory.getHits() + " hit(s), " + memory.getMisses() + " miss(es), "
+                        + memory.getEvictions() + " eviction(s)");
+            }
+            if(disk != null) {
+                System.out.println("INFO - Compilation cache: " + disk.getHits() + " hit(s), " + disk.getMisses() + " miss(es)");
             }
         // error catching
-        } catch (ArrayIndexOutOfBoundsException ex) {
-            System.err.println("Compiler requires test file to be specified. Enter name of file and try again.");
-        } catch (FileNotFoundException ex) {
+        } catch (NoSuchFileException ex) {
             System.err.println("Unable to locate file. Try again.");
+        } catch (IOException ex) {
+            System.err.println("Unable to read file: " + ex.getMessage());
         }
     }
 
     /**
-     * reads file parameter provided in run command and loads each program into an 
-     * ArrayList of Strings for compiler processes
-     * @param fileName name of test program(s) file
-     * @return ArrayList<String> of program(s) in file, delineated by '$' character
+     * compiles each program on a pool of worker threads, printing the output
+     *      of each program in input order
+     * only a bounded number of programs are in flight at once, so memory use
+     *      does not grow with the size of the input file
+     * @param reader source of programs to compile
+     * @param jobs number of worker threads
+     * @param verbose true if log messages should be printed
+     * @param service compiler service holding the front end options and cache
+     * @param run true if each compiled image should be executed
+     * @param profile true if each execution should be profiled
      */
-    public static ArrayList<String> readFile(String fileName) throws FileNotFoundException {
-
-        // initialize empty list for programs
-        ArrayList<String> programs = new ArrayList<>();
-
-        // initialize Scanner object to read from file specified
-        Scanner inFile = new Scanner(new File(fileName));
-
-        StringBuilder program = new StringBuilder();
-
-        while(inFile.hasNextLine()) {
-            // read in next line
-            String next = inFile.nextLine();
-            // append line to current program
-            program.append(next + "\n");
-            
-            // if program delimiter is detected within the next line,
-            // reset StringBuilder and save program to ArrayList
-            if(next.contains("$")) {
-                programs.add(program.toString());
-                program = new StringBuilder();
+    private static void compileParallel(ProgramSource reader, int jobs, boolean verbose, CompilerService service, boolean run, boolean profile)
+            throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(jobs);
+        ArrayDeque<Future<Output>> inFlight = new ArrayDeque<>();
+        int window = jobs * 4;
+
+        try {
+            int programNo = 0;
+            CharSequence program;
+            while((program = reader.next()) != null) {
+                programNo++;
+
+                // programs share no state, so each one is an independent task
+                CharSequence source = program;
+                int number = programNo;
+                inFlight.add(pool.submit(() -> compile(source, number, verbose, service, run, profile)));
+
+                // wait on the oldest program once the window is full
+                if(inFlight.size() >= window) {
+                    inFlight.poll().get().flush(System.out, System.err);
+                }
+            }
+
+            // wait on results in submission order so output stays in input order
+            while(!inFlight.isEmpty()) {
+                inFlight.poll().get().flush(System.out, System.err);
             }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            System.err.println("Compilation aborted: " + ex.getCause());
+        } finally {
+            pool.shutdownNow();
         }
+    }
+
+    /**
+     * executes a compiled image on the virtual machine, printing what it prints and how long it took
+     * @param image executable image
+     * @param sourceMap AST statement each address was generated for (null if not profiling)
+     * @param programNo program number for output header
+     * @param output output buffer for the program
+     */
+    private static void execute(byte[] image, Node[] sourceMap, int programNo, Output output) {
+        VirtualMachine vm = new VirtualMachine(image);
+        boolean profile = sourceMap != null;
+        Profiler profiler = profile ? new Profiler() : null;
+        boolean halted = vm.run(VirtualMachine.DEFAULT_MAX_INSTRUCTIONS, profiler);
+
+        output.println("Program " + programNo + " Output");
+        output.println("------------------------------------");
+        output.println(vm.getOutput());
+
+        String stats = vm.getInstructions() + " instruction(s) and " + vm.getCycles() + " cycle(s)";
+        if(halted) {
+            output.println("INFO - Program " + programNo + " halted after " + stats + ".\n");
+        } else {
+            output.errorln("ERROR - Program " + programNo + " - " + vm.getError() + " (" + stats + ").\n");
+        }
+
+        if(profile) {
+            output.println("Program " + programNo + " Profile");
+            output.println("------------------------------------");
+            output.println(profiler.report(image, sourceMap));
+        }
+    }
 
-        // close file after reading
-        inFile.close();
+    /**
+     * runs every compiler phase on a single program
+     * @param program source text of the program
+     * @param programNo program number for debug logging
+     * @param verbose true if log messages should be kept
+     * @return Output buffer holding everything printed for this program
+     */
+    public static Output compile(CharSequence program, int programNo, boolean verbose) {
+        return compile(program, programNo, verbose, new CompilerService(null, false, false), false, false);
+    }
+
+    /**
+     * compiles a single program with a compiler service (or reports its cached result)
+     *      and prints the result
+     * @param program source text of the program
+     * @param programNo program number for debug logging
+     * @param verbose true if log messages should be kept
+     * @param service compiler service holding the front end options and cache
+     * @param run true if the compiled image should be executed on the virtual machine
+     * @param profile true if the execution should be profiled
+     * @return Output buffer holding everything printed for this program
+     */
+    public static Output compile(CharSequence program, int programNo, boolean verbose, CompilerService service, boolean run, boolean profile) {
+        Output output = new Output(verbose);
+
+        output.println("INFO - Compiling program " + programNo + "...");
 
-        return programs;
+        // a profile needs the source map, so it always compiles
+        CompilationResult result = profile ? null : service.lookup(program);
+        if(result != null) {
+            output.println("INFO - Program " + programNo + " found in compilation cache, skipping all phases.");
+            CompilationRenderer.render(result, programNo, output);
+        } else {
+            // the phases log straight to this program's output, so only trees and outcome are left to print
+            result = service.compile(program, programNo, output);
+            CompilationRenderer.printTrees(result, programNo, output);
+            CompilationRenderer.printOutcome(result, programNo, output);
+        }
+
+        if(run && result.success()) {
+            execute(result.getExecutableImage(), profile ? result.getSourceMap() : null, programNo, output);
+        }
+        return output;
     }
 }
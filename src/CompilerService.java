@@ -0,0 +1,147 @@
+import java.io.IOException;
+
+/**
+ * Compiles programs into CompilationResults; used by Compiler and by embedders
+ * runs every phase with the separate parser or the fused front end; the phases only
+ *      log to the Output they are given, so with Output.diagnosticsOnly() no tree,
+ *      table or image is ever formatted, and CompilationRenderer prints a result
+ *      if it is wanted
+ *
+ * a service holds no state besides its options and cache, so any number of threads
+ *      can share one; with a cache, a program compiled before is returned without
+ *      running any phase
+ *
+ * usage:
+ *      CompilerService service = new CompilerService(new MemoryCache(1024, MemoryCache.DEFAULT_MAX_BYTES, null), true, false);
+ *      CompilationResult result = service.compile("{ print(1) }$");
+ *      byte[] image = result.getExecutableImage();
+ */
+public class CompilerService {
+
+    private ResultCache cache;
+    private boolean fused;
+    private boolean keepCST;
+
+    /**
+     * constructor for CompilerService without a cache, using the fused front end without the CST
+     */
+    public CompilerService() {
+        this(null, true, false);
+    }
+
+    /**
+     * constructor for CompilerService
+     * @param cache cache of results to reuse (null to compile every program)
+     * @param fused true if parse and semantic analysis should be done in a single pass
+     * @param keepCST true if the CST should be built in fused mode (always built otherwise)
+     */
+    public CompilerService(ResultCache cache, boolean fused, boolean keepCST) {
+        this.cache = cache;
+        this.fused = fused;
+        this.keepCST = keepCST;
+    }
+
+    /**
+     * compiles a single program, or returns its cached result
+     * @param program source text of the program (ending with '$')
+     * @return result of every phase that ran
+     */
+    public CompilationResult compile(CharSequence program) {
+        CompilationResult cached = lookup(program);
+        if(cached != null) {
+            return cached;
+        }
+        return compile(program, 0, Output.diagnosticsOnly());
+    }
+
+    /**
+     * looks up the result of an earlier compilation of a program
+     * @param program source text of the program
+     * @return cached result, or null if there is none (or no cache)
+     */
+    public CompilationResult lookup(CharSequence program) {
+        return cache == null ? null : cache.get(CompilationCache.key(program, fused));
+    }
+
+    /**
+     * runs every phase on a program, stopping at the first that fails, and stores
+     *      the result in the cache
+     * @param program source text of the program
+     * @param programNo program number for debug logging
+     * @param output output buffer the phases log to
+     * @return result of every phase that ran
+     */
+    public CompilationResult compile(CharSequence program, int programNo, Output output) {
+        TokenBuffer tokens = null;
+        SyntaxTree cst = null;
+        SemanticAnalyzer analyzer = null;
+        CodeGenerator generator = null;
+        String failed = null;
+
+        try {
+            // do lex
+            Lexer lex = new Lexer(program, programNo, output);
+            tokens = lex.getTokens();
+
+            if(!lex.success()) {
+                failed = CompilationResult.LEX;
+            } else {
+                if(fused) {
+                    // do parse and semantic analysis in one walk over the tokens
+                    analyzer = new SemanticAnalyzer(tokens, programNo, output, keepCST);
+                    if(analyzer.parseSuccess()) {
+                        cst = analyzer.getCST();
+                    }
+                } else {
+                    // do parse, then semantic analysis
+                    Parser parse = new Parser(tokens, programNo, output);
+                    if(parse.success()) {
+                        cst = parse.getCST();
+                        analyzer = new SemanticAnalyzer(tokens, programNo, output);
+                    }
+                }
+
+                if(analyzer == null || !analyzer.parseSuccess()) {
+                    failed = CompilationResult.PARSE;
+                } else if(!analyzer.success()) {
+                    failed = CompilationResult.SEMANTIC_ANALYSIS;
+                } else {
+                    // fold constants and remove dead branches, then generate opcode
+                    new ASTOptimizer(analyzer.getAST(), programNo, output);
+                    generator = new CodeGenerator(analyzer.getAST(), analyzer.getSymbolTable(), programNo, output);
+                    if(!generator.success()) {
+                        failed = CompilationResult.CODE_GENERATION;
+                    }
+                }
+            }
+        // a broken program must not take down the caller
+        } catch (RuntimeException ex) {
+            String line = "ERROR - Compiler - Internal error on program " + programNo + ": " + ex;
+            output.errorln(line);
+            output.diagnostic(line);
+            failed = CompilationResult.INTERNAL;
+        }
+
+        // trees and tables are only kept from phases that completed
+        boolean analyzed = analyzer != null && analyzer.success();
+        boolean generated = generator != null && generator.success();
+        CompilationResult result = new CompilationResult(tokens, cst,
+                analyzed ? analyzer.getAST() : null,
+                analyzed ? analyzer.getScopeTree() : null,
+                analyzed ? analyzer.getSymbolTable() : null,
+                generated ? generator.getVariableTable() : null,
+                generated ? generator.getJumpTable() : null,
+                generated ? generator.getExecutableImage() : null,
+                generated ? generator.getSourceMap() : null,
+                output.getDiagnostics(), failed);
+
+        if(cache != null && !CompilationResult.INTERNAL.equals(failed)) {
+            try {
+                cache.put(CompilationCache.key(program, fused), result);
+            } catch (IOException ex) {
+                output.errorln("WARNING - Compiler - Unable to cache program " + programNo + ": " + ex.getMessage());
+            }
+        }
+        return result;
+    }
+}
@@ -2,12 +2,12 @@ import java.util.regex.Pattern;
 
 /**
  * Parent class for all compiler components
- * contains master debug switch, log function, and type check methods
+ * contains per-program output buffer, log function, and type check methods
  */
 public class Component {
     
-    // verbose mode on by default
-    private static boolean debug = true;
+    // output buffer for the program being compiled (holds the verbose switch)
+    protected Output output;
 
     /**
      * constructor
@@ -16,6 +16,14 @@ public class Component {
 
     }
 
+    /**
+     * constructor for components that log or print
+     * @param output output buffer for the current program
+     */
+    public Component(Output output) {
+        this.output = output;
+    }
+
     /**
      * checks if given character is a letter
      * @param v current token value
@@ -62,14 +70,7 @@ public class Component {
      * @return true if recognized keyword
      */
     public boolean isKeyword(String v) {
-        return (v.equals("print") || 
-                v.equals("while") || 
-                v.equals("if") || 
-                v.equals("int") || 
-                v.equals("boolean") || 
-                v.equals("string") || 
-                v.equals("true") || 
-                v.equals("false"));
+        return Keywords.lookup(v) != Kind.ERROR;
     }
 
     public boolean isTerminal(String v) {
@@ -87,21 +88,16 @@ public class Component {
      * @return Kind of keyword
      */
     public Kind getKeyword(String v) {
-        switch (v) {
-            case "print": return Kind.PRINT;
-            case "while": return Kind.WHILE;
-            case "if": return Kind.IF;
-            case "int": return Kind.TYPE_INT;
-            case "boolean": return Kind.TYPE_BOOLEAN;
-            case "string": return Kind.TYPE_STRING;
-            case "true": return Kind.TRUE;
-            case "false": return Kind.FALSE;
-            default: return Kind.ERROR;
-        }
+        return Keywords.lookup(v);
     }
 
+    /**
+     * finds the type of a literal value
+     * @param test literal value (integers may have more than one digit once constants are folded)
+     * @return int, boolean or string
+     */
     public String getType(String test) {
-        if(Pattern.matches("\\d", test)) {
+        if(Pattern.matches("\\d+", test)) {
             return "int";
         } else if (Pattern.matches("true|false", test)) {
             return "boolean";
@@ -116,8 +112,15 @@ public class Component {
      * @param msg - message to log
      */
     public void log(String alert, String step, String msg) {
-        if(debug) {
-            System.out.println(alert + " - " + step + " - " + msg);
+        boolean diagnostic = alert.equals("WARNING") || alert.equals("ERROR");
+        if(output.isVerbose() || diagnostic) {
+            String line = alert + " - " + step + " - " + msg;
+            if(diagnostic) {
+                output.diagnostic(line);
+            }
+            if(output.isVerbose()) {
+                output.println(line);
+            }
         }
     }
 }
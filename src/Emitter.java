@@ -0,0 +1,401 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Byte buffer for the code of a generated program
+ * instructions are written as bytes through one typed method per opcode, and hex
+ *      text is only made when the image is printed
+ *
+ * only CPX changes the Z flag (loads, stores and ADC leave it alone)
+ *
+ * operands that are not known until the whole program has been generated (static
+ *      variable addresses and branch offsets) are written as 00 placeholders with a
+ *      Fixup recording the site, and are all resolved in a single pass by link()
+ */
+public class Emitter {
+
+    // 6502 subset opcodes
+    public static final int LDA_CONST = 0xA9;
+    public static final int LDA_MEM = 0xAD;
+    public static final int STA = 0x8D;
+    public static final int ADC = 0x6D;
+    public static final int LDX_CONST = 0xA2;
+    public static final int LDX_MEM = 0xAE;
+    public static final int LDY_CONST = 0xA0;
+    public static final int LDY_MEM = 0xAC;
+    public static final int NOP = 0xEA;
+    public static final int BRK = 0x00;
+    public static final int CPX = 0xEC;
+    public static final int BNE = 0xD0;
+    public static final int INC = 0xEE;
+    public static final int SYS = 0xFF;
+
+    private byte[] code;
+    private int size;
+
+    private ArrayList<Integer> starts;   // offset of each instruction written by a typed method
+    private ArrayList<Node> sources;    // AST statement each instruction was generated for
+    private Node source;                // statement being generated
+    private ArrayList<Fixup> fixups;    // every placeholder, in code order
+    private ArrayList<Label> labels;
+
+    /**
+     * constructor for Emitter, sized for a full 256 byte image (grows if a program is larger)
+     */
+    public Emitter() {
+        code = new byte[256];
+        size = 0;
+
+        starts = new ArrayList<>();
+        sources = new ArrayList<>();
+        fixups = new ArrayList<>();
+        labels = new ArrayList<>();
+    }
+
+    /**
+     * marks the start of an instruction
+     */
+    private void begin() {
+        starts.add(size);
+        sources.add(source);
+    }
+
+    /**
+     * sets the AST statement the following instructions are generated for
+     * @param statement statement Node
+     */
+    public void setSource(Node statement) {
+        source = statement;
+    }
+
+    /**
+     * A9: load accumulator with constant
+     * @param value constant
+     */
+    public void emitLDAConst(int value) {
+        begin();
+        emitByte(LDA_CONST);
+        emitByte(value);
+    }
+
+    /**
+     * AD: load accumulator from memory
+     * @param variable static variable to load
+     */
+    public void emitLDA(VariableEntry variable) {
+        begin();
+        emitByte(LDA_MEM);
+        emitVariable(variable);
+    }
+
+    /**
+     * 8D: store accumulator in memory
+     * @param variable static variable to store into
+     */
+    public void emitSTA(VariableEntry variable) {
+        begin();
+        emitByte(STA);
+        emitVariable(variable);
+    }
+
+    /**
+     * 6D: add contents of memory to accumulator
+     * @param variable static variable to add
+     */
+    public void emitADC(VariableEntry variable) {
+        begin();
+        emitByte(ADC);
+        emitVariable(variable);
+    }
+
+    /**
+     * A2: load X register with constant
+     * @param value constant
+     */
+    public void emitLDXConst(int value) {
+        begin();
+        emitByte(LDX_CONST);
+        emitByte(value);
+    }
+
+    /**
+     * AE: load X register from memory
+     * @param variable static variable to load
+     */
+    public void emitLDX(VariableEntry variable) {
+        begin();
+        emitByte(LDX_MEM);
+        emitVariable(variable);
+    }
+
+    /**
+     * A0: load Y register with constant
+     * @param value constant
+     */
+    public void emitLDYConst(int value) {
+        begin();
+        emitByte(LDY_CONST);
+        emitByte(value);
+    }
+
+    /**
+     * AC: load Y register from memory
+     * @param variable static variable to load
+     */
+    public void emitLDY(VariableEntry variable) {
+        begin();
+        emitByte(LDY_MEM);
+        emitVariable(variable);
+    }
+
+    /**
+     * EC: compare memory to X register (sets Z flag if equal)
+     * @param variable static variable to compare
+     */
+    public void emitCPX(VariableEntry variable) {
+        begin();
+        emitByte(CPX);
+        emitVariable(variable);
+    }
+
+    /**
+     * EC: compare a fixed address to X register (sets Z flag if equal)
+     * @param address address to compare
+     */
+    public void emitCPX(int address) {
+        begin();
+        emitByte(CPX);
+        emitAddress(address);
+    }
+
+    /**
+     * D0: branch if Z flag is not set, to a label (offset filled in at link time)
+     * @param label label to branch to
+     */
+    public void emitBNE(Label label) {
+        begin();
+        emitByte(BNE);
+        fixups.add(new Fixup(size, label));
+        emitByte(0);
+    }
+
+    /**
+     * 00: break (halt the program)
+     */
+    public void emitBRK() {
+        begin();
+        emitByte(BRK);
+    }
+
+    /**
+     * FF: system call (X = 01 prints the integer in Y, X = 02 prints the string at address Y)
+     */
+    public void emitSYS() {
+        begin();
+        emitByte(SYS);
+    }
+
+    /**
+     * appends a single byte (not marked as an instruction, so passes over the
+     *      code treat it as part of the instruction before it)
+     * @param value byte to append (only the low 8 bits are kept)
+     */
+    public void emitByte(int value) {
+        if(size == code.length) {
+            code = Arrays.copyOf(code, code.length * 2);
+        }
+        code[size++] = (byte) value;
+    }
+
+    /**
+     * appends a fixed address in little endian order
+     * @param address address to append
+     */
+    private void emitAddress(int address) {
+        emitByte(address);
+        emitByte(address >> 8);
+    }
+
+    /**
+     * appends a placeholder for the address of a static variable
+     * @param variable static variable
+     */
+    private void emitVariable(VariableEntry variable) {
+        fixups.add(new Fixup(size, variable));
+        emitAddress(0);
+    }
+
+    /**
+     * creates a new unbound label
+     * @return label named J0, J1, ... in creation order
+     */
+    public Label newLabel() {
+        Label label = new Label("J" + labels.size());
+        labels.add(label);
+        return label;
+    }
+
+    /**
+     * binds a label to the current end of the code
+     * @param label label to bind
+     */
+    public void bind(Label label) {
+        label.bind(size);
+    }
+
+    /**
+     * resolves every placeholder in one pass over the fixups
+     * static variables get the address base + their slot, and branches get the
+     *      distance from the end of the branch to their label (backward branches wrap around)
+     * @param base address of the first static variable
+     * @param jumpTable table each resolved branch distance is added to
+     */
+    public void link(int base, JumpTable jumpTable) {
+        for(Fixup fixup : fixups) {
+            int site = fixup.getSite();
+            if(fixup.getVariable() != null) {
+                int address = base + fixup.getVariable().getSlot();
+                code[site] = (byte) address;
+                code[site + 1] = (byte) (address >> 8);
+            } else {
+                Label label = fixup.getLabel();
+                if(!label.isBound()) {
+                    throw new IllegalStateException("Label " + label.getName() + " was never bound");
+                }
+                int distance = (label.getPosition() - (site + 1)) & 0xFF;
+                code[site] = (byte) distance;
+                jumpTable.addEntry(label.getName(), String.format("%02X", distance));
+            }
+        }
+    }
+
+    /**
+     * removes instructions, moving the code after them down and shifting every
+     *      fixup and label past them (a label on a removed instruction moves to the next one)
+     * @param removed true for each instruction (in order of getStarts()) to remove
+     * @return number of bytes removed
+     */
+    public int remove(boolean[] removed) {
+        // bytes removed before each old offset
+        int[] shift = new int[size + 1];
+        int removedBytes = 0;
+        int from = 0;
+        int to = 0;
+        ArrayList<Integer> kept = new ArrayList<>(starts.size());
+        ArrayList<Node> keptSources = new ArrayList<>(starts.size());
+        for(int i = 0; i < starts.size(); i++) {
+            int start = starts.get(i);
+            int end = i + 1 < starts.size() ? starts.get(i + 1) : size;
+
+            // bytes before the first instruction are always kept
+            for(int b = from; b < start; b++) {
+                shift[b] = removedBytes;
+                code[to++] = code[b];
+            }
+            for(int b = start; b < end; b++) {
+                shift[b] = removedBytes;
+            }
+            if(removed[i]) {
+                removedBytes += end - start;
+            } else {
+                kept.add(start - shift[start]);
+                keptSources.add(sources.get(i));
+                System.arraycopy(code, start, code, to, end - start);
+                to += end - start;
+            }
+            from = end;
+        }
+        for(int b = from; b < size; b++) {
+            shift[b] = removedBytes;
+            code[to++] = code[b];
+        }
+        shift[size] = removedBytes;
+
+        // fixups inside removed instructions go away with them
+        ArrayList<Fixup> moved = new ArrayList<>(fixups.size());
+        int next = 0;
+        for(Fixup fixup : fixups) {
+            while(next + 1 < starts.size() && starts.get(next + 1) <= fixup.getSite()) {
+                next++;
+            }
+            if(starts.isEmpty() || fixup.getSite() < starts.get(0) || !removed[next]) {
+                fixup.setSite(fixup.getSite() - shift[fixup.getSite()]);
+                moved.add(fixup);
+            }
+        }
+        fixups = moved;
+
+        for(Label label : labels) {
+            if(label.isBound()) {
+                label.bind(label.getPosition() - shift[label.getPosition()]);
+            }
+        }
+
+        starts = kept;
+        sources = keptSources;
+        size = to;
+        return removedBytes;
+    }
+
+    /**
+     * getter for a byte of code
+     * @param i offset in code
+     * @return byte at offset (0-255)
+     */
+    public int getByte(int i) {
+        return code[i] & 0xFF;
+    }
+
+    /**
+     * getter for instruction starts
+     * @return offset of each instruction written by a typed method, in code order
+     */
+    public ArrayList<Integer> getStarts() {
+        return starts;
+    }
+
+    /**
+     * getter for fixups
+     * @return every placeholder, in code order
+     */
+    public ArrayList<Fixup> getFixups() {
+        return fixups;
+    }
+
+    /**
+     * getter for labels
+     * @return every label, in creation order
+     */
+    public ArrayList<Label> getLabels() {
+        return labels;
+    }
+
+    /**
+     * getter for number of bytes emitted
+     * @return size of code in bytes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * fills a source map with the AST statement each byte of code was generated for
+     * @param map array indexed by address (bytes before the first instruction are left null)
+     */
+    public void copySourcesTo(Node[] map) {
+        for(int i = 0; i < starts.size(); i++) {
+            int end = i + 1 < starts.size() ? starts.get(i + 1) : size;
+            for(int b = starts.get(i); b < end; b++) {
+                map[b] = sources.get(i);
+            }
+        }
+    }
+
+    /**
+     * copies the emitted code into an image
+     * @param image image to copy into, starting at address 0
+     */
+    public void copyTo(byte[] image) {
+        System.arraycopy(code, 0, image, 0, size);
+    }
+}
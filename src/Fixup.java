@@ -0,0 +1,62 @@
+/**
+ * Fixup (relocation) record for a placeholder in emitted code
+ * either the 2 byte address of a static variable or the 1 byte offset of a branch to a label
+ */
+public class Fixup {
+
+    private int site;                   // offset of placeholder in code
+    private VariableEntry variable;     // static variable whose address goes at site (or null)
+    private Label label;                // label whose branch offset goes at site (or null)
+
+    /**
+     * constructor for a static variable address fixup
+     * @param site offset of placeholder in code
+     * @param variable static variable
+     */
+    public Fixup(int site, VariableEntry variable) {
+        this.site = site;
+        this.variable = variable;
+    }
+
+    /**
+     * constructor for a branch offset fixup
+     * @param site offset of placeholder in code
+     * @param label label branched to
+     */
+    public Fixup(int site, Label label) {
+        this.site = site;
+        this.label = label;
+    }
+
+    /**
+     * getter for Fixup site
+     * @return offset of placeholder in code
+     */
+    public int getSite() {
+        return site;
+    }
+
+    /**
+     * setter for Fixup site (for passes that move code)
+     * @param site new offset of placeholder in code
+     */
+    public void setSite(int site) {
+        this.site = site;
+    }
+
+    /**
+     * getter for Fixup variable
+     * @return static variable, or null for a branch fixup
+     */
+    public VariableEntry getVariable() {
+        return variable;
+    }
+
+    /**
+     * getter for Fixup label
+     * @return label, or null for a static variable fixup
+     */
+    public Label getLabel() {
+        return label;
+    }
+}
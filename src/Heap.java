@@ -0,0 +1,144 @@
+import java.util.HashMap;
+
+/**
+ * String heap at the top of the executable image
+ * strings are stored as null terminated ASCII and grow down from the end of memory
+ *
+ * strings are pooled: a string that is already in the heap, or is the tail of a
+ *      string in the heap ("ue" in "true"), reuses that address, and a string that
+ *      ends with the string at the front of the heap only adds its extra characters
+ *
+ * "false" and "true" are always at the top of the heap, so their addresses are
+ *      constants; "true" ends at the last byte of memory, whose 00 terminator is
+ *      also used as the empty string
+ */
+public class Heap {
+
+    public static final int SIZE = 256;             // bytes of memory in the execution environment
+    public static final int FALSE_ADDRESS = 0xF5;
+    public static final int TRUE_ADDRESS = 0xFB;
+    public static final int EMPTY_ADDRESS = 0xFF;
+
+    // byte stored for each character: printable ASCII as itself, anything else as 00
+    private static final byte[] ENCODING = new byte[128];
+
+    // "false" and "true", encoded once and copied into every heap
+    private static final byte[] BOOLEAN_STRINGS = new byte[SIZE - FALSE_ADDRESS];
+
+    static {
+        for(int c = 0x20; c < 0x7F; c++) {
+            ENCODING[c] = (byte) c;
+        }
+        encode("false", BOOLEAN_STRINGS, 0);
+        encode("true", BOOLEAN_STRINGS, TRUE_ADDRESS - FALSE_ADDRESS);
+    }
+
+    private byte[] memory;
+    private int start;          // address of lowest byte in use (below 0 if the heap overflowed)
+    private String front;       // string stored at start
+
+    // address of every string and string tail in the heap
+    private HashMap<String, Integer> pool;
+
+    /**
+     * constructor for Heap holding only "false" and "true"
+     */
+    public Heap() {
+        memory = new byte[SIZE];
+        System.arraycopy(BOOLEAN_STRINGS, 0, memory, FALSE_ADDRESS, BOOLEAN_STRINGS.length);
+        start = FALSE_ADDRESS;
+        front = "false";
+
+        pool = new HashMap<>();
+        addToPool("true", TRUE_ADDRESS);
+        addToPool("false", FALSE_ADDRESS);
+    }
+
+    /**
+     * finds a string in the heap, or adds it to the front of the heap (the heap works from the bottom up)
+     * @param str string to find or add
+     * @return address of the string
+     */
+    public int allocate(String str) {
+        if(str.isEmpty()) {
+            return EMPTY_ADDRESS;
+        }
+
+        // already in the heap, by itself or as the tail of a longer string
+        Integer address = pool.get(str);
+        if(address != null) {
+            return address;
+        }
+
+        if(str.endsWith(front)) {
+            // only the characters in front of the current front string are new
+            int extra = str.length() - front.length();
+            start -= extra;
+            if(start >= 0) {
+                encodePrefix(str, extra, memory, start);
+            }
+        } else {
+            start -= str.length() + 1;
+            if(start >= 0) {
+                encode(str, memory, start);
+            }
+        }
+
+        front = str;
+        addToPool(str, start);
+        return start;
+    }
+
+    /**
+     * adds a string and every tail of it to the pool (tails already in the pool keep their address)
+     * @param str string stored in the heap
+     * @param address address of the string
+     */
+    private void addToPool(String str, int address) {
+        for(int i = 0; i < str.length(); i++) {
+            pool.putIfAbsent(str.substring(i), address + i);
+        }
+    }
+
+    /**
+     * getter for start of heap
+     * @return address of lowest byte in use, code and static variables have to end before it
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * copies the heap into the top of an image
+     * @param image image to copy into
+     */
+    public void copyTo(byte[] image) {
+        System.arraycopy(memory, start, image, start, SIZE - start);
+    }
+
+    /**
+     * encodes a string as null terminated ASCII in one pass over a lookup table
+     * @param str string to encode
+     * @param dest array to write into
+     * @param offset index of first byte to write
+     */
+    private static void encode(CharSequence str, byte[] dest, int offset) {
+        int length = str.length();
+        encodePrefix(str, length, dest, offset);
+        dest[offset + length] = 0;
+    }
+
+    /**
+     * encodes the first characters of a string as ASCII (no terminator)
+     * @param str string to encode
+     * @param length number of characters to encode
+     * @param dest array to write into
+     * @param offset index of first byte to write
+     */
+    private static void encodePrefix(CharSequence str, int length, byte[] dest, int offset) {
+        for(int i = 0; i < length; i++) {
+            char c = str.charAt(i);
+            dest[offset + i] = c < 128 ? ENCODING[c] : 0;
+        }
+    }
+}
@@ -1,20 +1,26 @@
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 
 public class JumpTable {
 
-    // temp address mapped to distance
-    private HashMap<String, String> table;
+    // jump label mapped to distance, in code order
+    private Map<String, String> table;
+    private boolean frozen;     // set once the table is part of a CompilationResult
 
     public JumpTable() {
-        table = new HashMap<>();
+        table = new LinkedHashMap<>();
     }
 
     public void addEntry(String key, String value) {
+        if(frozen) {
+            throw new IllegalStateException("Jump table is part of a compilation result and can not be changed");
+        }
         table.put(key, value);
     }
 
-    public HashMap<String, String> getTable() {
+    public Map<String, String> getTable() {
         return table;
     }
 
@@ -36,4 +42,14 @@ public class JumpTable {
 
         return output.toString();
     }
-}
\ No newline at end of file
+
+    /**
+     * makes the table read-only
+     */
+    public void freeze() {
+        if(!frozen) {
+            frozen = true;
+            table = Collections.unmodifiableMap(table);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Keyword recognizer for the Lexer
+ * switches on the first character to the only keyword(s) that can start with it,
+ *      then compares the remaining characters in place, so a keyword is accepted
+ *      or rejected in one pass without building any intermediate String
+ *
+ * no keyword is a prefix of another, so at most one keyword can match
+ */
+public final class Keywords {
+
+    private Keywords() {
+
+    }
+
+    /**
+     * finds the keyword spelled by the characters beginning at the given index
+     * @param src characters to read
+     * @param start index of the first character
+     * @param end index after the last character that may be read
+     * @return Kind of keyword, or Kind.ERROR if the characters do not begin with a keyword
+     */
+    public static Kind match(CharSequence src, int start, int end) {
+        if(start >= end) {
+            return Kind.ERROR;
+        }
+
+        switch(src.charAt(start)) {
+            case 'p': return spells(src, start, end, "print") ? Kind.PRINT : Kind.ERROR;
+            case 'w': return spells(src, start, end, "while") ? Kind.WHILE : Kind.ERROR;
+            case 'b': return spells(src, start, end, "boolean") ? Kind.TYPE_BOOLEAN : Kind.ERROR;
+            case 's': return spells(src, start, end, "string") ? Kind.TYPE_STRING : Kind.ERROR;
+            case 't': return spells(src, start, end, "true") ? Kind.TRUE : Kind.ERROR;
+            case 'f': return spells(src, start, end, "false") ? Kind.FALSE : Kind.ERROR;
+            case 'i':
+                // "if" and "int" split on the second character
+                if(start + 1 < end) {
+                    char second = src.charAt(start + 1);
+                    if(second == 'f') {
+                        return Kind.IF;
+                    } else if(second == 'n' && spells(src, start, end, "int")) {
+                        return Kind.TYPE_INT;
+                    }
+                }
+                return Kind.ERROR;
+            default: return Kind.ERROR;
+        }
+    }
+
+    /**
+     * checks if the given String is exactly a keyword
+     * @param v String to check
+     * @return Kind of keyword, or Kind.ERROR if not a keyword
+     */
+    public static Kind lookup(String v) {
+        Kind k = match(v, 0, v.length());
+        if(k != Kind.ERROR && lexeme(k).length() == v.length()) {
+            return k;
+        }
+        return Kind.ERROR;
+    }
+
+    /**
+     * returns the text of a keyword
+     * @param k Kind of keyword
+     * @return keyword text, or null if k is not a keyword
+     */
+    public static String lexeme(Kind k) {
+        switch(k) {
+            case PRINT: return "print";
+            case WHILE: return "while";
+            case IF: return "if";
+            case TYPE_INT: return "int";
+            case TYPE_BOOLEAN: return "boolean";
+            case TYPE_STRING: return "string";
+            case TRUE: return "true";
+            case FALSE: return "false";
+            default: return null;
+        }
+    }
+
+    /**
+     * compares characters in place against a keyword (first character already matched)
+     * @param src characters to read
+     * @param start index of the first character
+     * @param end index after the last character that may be read
+     * @param keyword keyword to compare against
+     * @return true if the characters beginning at start spell the keyword
+     */
+    private static boolean spells(CharSequence src, int start, int end, String keyword) {
+        int n = keyword.length();
+        if(end - start < n) {
+            return false;
+        }
+        for(int i = 1; i < n; i++) {
+            if(src.charAt(start + i) != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Label for a position in emitted code that branches can jump to
+ * a label can be used by a branch before it is bound; its offset is filled in at link time
+ */
+public class Label {
+
+    private String name;
+    private int position;   // offset in code, -1 until bound
+
+    /**
+     * constructor for Label
+     * @param name name shown in the jump table
+     */
+    public Label(String name) {
+        this.name = name;
+        position = -1;
+    }
+
+    /**
+     * binds the label to a position in the code
+     * @param position offset in code
+     */
+    public void bind(int position) {
+        this.position = position;
+    }
+
+    /**
+     * checks if label has been bound
+     * @return true if label has a position
+     */
+    public boolean isBound() {
+        return position >= 0;
+    }
+
+    /**
+     * getter for Label position
+     * @return offset in code
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * getter for Label name
+     * @return name shown in the jump table
+     */
+    public String getName() {
+        return name;
+    }
+}
@@ -1,44 +1,90 @@
-import java.util.ArrayList;
-
 /**
  * Lexer Component of Compiler
+ *
+ * single pass over the program: each character is looked up in a precomputed
+ *      character class table and dispatched to the state that handles it
+ *      (id/keyword, symbol, digit, quote, comment, whitespace), so no String
+ *      is made per character
  */
 public class Lexer extends Component {
-    
+
+    // character classes
+    private static final byte CLASS_OTHER = 0;      // unrecognized character
+    private static final byte CLASS_LETTER = 1;     // a-z
+    private static final byte CLASS_DIGIT = 2;      // 0-9
+    private static final byte CLASS_SYMBOL = 3;     // single character symbol: { } ( ) + $
+    private static final byte CLASS_EQUALS = 4;     // = or ==
+    private static final byte CLASS_BANG = 5;       // !=
+    private static final byte CLASS_QUOTE = 6;      // "
+    private static final byte CLASS_SLASH = 7;      // start of comment
+    private static final byte CLASS_SPACE = 8;      // space, tab, carriage return
+    private static final byte CLASS_NEWLINE = 9;    // end of line
+
+    // lookup tables indexed by (ASCII) character
+    private static final byte[] CHAR_CLASS = new byte[128];
+    private static final Kind[] SYMBOL_KIND = new Kind[128];
+
+    static {
+        for(char c = 'a'; c <= 'z'; c++) {
+            CHAR_CLASS[c] = CLASS_LETTER;
+        }
+        for(char c = '0'; c <= '9'; c++) {
+            CHAR_CLASS[c] = CLASS_DIGIT;
+        }
+
+        SYMBOL_KIND['{'] = Kind.OPEN_BLOCK;
+        SYMBOL_KIND['}'] = Kind.CLOSE_BLOCK;
+        SYMBOL_KIND['('] = Kind.OPEN_PAREN;
+        SYMBOL_KIND[')'] = Kind.CLOSE_PAREN;
+        SYMBOL_KIND['+'] = Kind.ADD_OP;
+        SYMBOL_KIND['$'] = Kind.EOP;
+        for(char c = 0; c < 128; c++) {
+            if(SYMBOL_KIND[c] != null) {
+                CHAR_CLASS[c] = CLASS_SYMBOL;
+            }
+        }
+
+        CHAR_CLASS['='] = CLASS_EQUALS;
+        CHAR_CLASS['!'] = CLASS_BANG;
+        CHAR_CLASS['"'] = CLASS_QUOTE;
+        CHAR_CLASS['/'] = CLASS_SLASH;
+        CHAR_CLASS[' '] = CLASS_SPACE;
+        CHAR_CLASS['\t'] = CLASS_SPACE;
+        CHAR_CLASS['\r'] = CLASS_SPACE;
+        CHAR_CLASS['\n'] = CLASS_NEWLINE;
+    }
+
     private int warningCount;   // number of detected warnings
     private int errorCount;     // number of detected errors
 
-    private ArrayList<Token> tokenStream;
-    
+    private TokenBuffer tokens;
+
+    private CharSequence source;    // program being lexed
+    private int length;             // length of program
+    private int line;               // line number of program text
+    private int lineStart;          // index of the first character of the current line
+
     /**
      * constructor for lexer component. tokenizes program given on constructor call
-     * @param program String of program to be lexed
+     * @param program program to be lexed (String, or a view over mapped input)
      * @param programNo program number for debug logging
+     * @param output output buffer for the current program
      */
-    public Lexer(String program, int programNo) {
+    public Lexer(CharSequence program, int programNo, Output output) {
+        super(output);
+
         // initialize flags and variables
         warningCount = 0;
         errorCount = 0;
 
-        tokenStream = new ArrayList<Token>();
-
-        int line = 1;   // line number of program text
+        source = program;
+        tokens = new TokenBuffer(program);
+        length = program.length();
 
         log("INFO", "Lexing program " + Integer.toString(programNo) + "...");
 
-        // breaks program up into list of lines (delimiter = "\n")
-        ArrayList<String> programLines = convertToLineList(program);
-
-        // for each line in the list of program lines
-        for(String progLine : programLines) {
-            // break into list of characters to lex each one individually
-            char[] charList = progLine.toCharArray();
-            // send to helper function to tokenize entire line of chars and add result to token stream
-            tokenStream.addAll(tokenize(charList, line));
-            
-            // increment line number at the end of each line
-            line++;
-        }
+        // single pass over the whole program
+        tokenize();
 
         // check for last EOP symbol
         checkEOP(line);
@@ -52,213 +98,251 @@ public class Lexer extends Component {
     }
 
     /**
-     * Further breaks program string into an ArrayList of lines
-     * @param program String containing whole program
-     * @return ArrayList of Strings containing each line of the program
+     * returns character class of given character
+     * @param c character to classify
+     * @return one of the CLASS_ constants
      */
-    private ArrayList<String> convertToLineList(String program) {
-        ArrayList<String> lines = new ArrayList<String>();
-
-        // while a newline is detected, break each program line into substrings and add to ArrayList
-        if(program.contains("\n")) {
-            while(program.contains("\n")) {
-                lines.add(program.substring(0, program.indexOf("\n")+1));
-                program = program.substring(program.indexOf("\n")+1);
-            }
+    private static byte classOf(char c) {
+        return c < 128 ? CHAR_CLASS[c] : CLASS_OTHER;
+    }
+
+    /**
+     * returns character at given index, a missing "\n" at the end of the
+     *      last line is filled in so lookahead never runs off the program
+     * @param pos index within the program
+     * @return character at index
+     */
+    private char peek(int pos) {
+        return pos < length ? source.charAt(pos) : '\n';
+    }
+
+    /**
+     * moves past the "\n" at the given index and starts the next line
+     * @param pos index of the "\n" ending the current line
+     * @return index of the first character of the next line
+     */
+    private int nextLine(int pos) {
+        if(pos >= length) {
+            // filled in "\n" of an unterminated last line
+            return length;
         }
-        return lines;
+        line++;
+        lineStart = pos + 1;
+        return lineStart;
     }
 
     /**
-     * turns entire list of characters into ArrayList of Tokens to add to the token stream
-     * @param charList list of characters in the current line
-     * @param line line number for debug output
-     * @return ArrayList of Tokens
+     * turns the whole program into tokens and adds them to the token buffer
      */
-    private ArrayList<Token> tokenize(char[] charList, int line) {
-        ArrayList<Token> lineTokens = new ArrayList<Token>();
-
-        for(int i = 0; i < charList.length; i++) {
-            // convert current character to string for easier token checking
-            String tokenBuilder = Character.toString(charList[i]);
-            String lookahead;
-            
-            // LETTER DETECTION
-            if(isLetter(tokenBuilder)) {
-                lookahead = Character.toString(charList[i+1]);
-
-                // ID DETECTION
-                if(!isLetter(lookahead)) {
-                    lineTokens.add(new Token(Kind.ID, tokenBuilder, line, i));
-                    log("DEBUG", "ID [ " + tokenBuilder + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
-                
-                // KEYWORD DETECTION
-                } else {
-                    String temp = lookahead;
-                    int tempCounter = i;
-                    // adjust current position
-                    tempCounter++;
-                    while(isLetter(temp)) {
-                        tokenBuilder += temp;
-                        tempCounter++;     // increment position
-                        temp = Character.toString(charList[tempCounter]);
-
-                        // once a keyword is detected, add the token and break out of the loop
-                        if(isKeyword(tokenBuilder)) {
-                            break;
-                        }
-                    }
-                    if(getKeyword(tokenBuilder) != Kind.ERROR) {
-                        log("DEBUG", getKeyword(tokenBuilder).toString() + " [ " + tokenBuilder + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
-                        lineTokens.add(new Token(getKeyword(tokenBuilder), tokenBuilder, line, i));
-                        i = tempCounter-1; // back up one position to read the input properly
-                    } else {
-                        // backtrack
-                        String id = Character.toString(charList[i]);
-                        lineTokens.add(new Token(Kind.ID, id, line, i));
-                        log("DEBUG", "ID [ " + id + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
-                    }
-                }
+    private void tokenize() {
+        int pos = 0;
+        line = 1;
+        lineStart = 0;
+
+        while(pos < length) {
+            char c = source.charAt(pos);
+            int col = pos - lineStart;
+
+            switch(classOf(c)) {
+                // LETTER DETECTION
+                case CLASS_LETTER:
+                    pos = letter(pos, col);
+                    break;
 
-            // SYMBOL DETECTION
-            } else if(isSymbol(tokenBuilder)) {
-                if(tokenBuilder.equals("+")) {          // +
-                    lineTokens.add(new Token(Kind.ADD_OP, tokenBuilder, line, i));
-                    log("DEBUG", "ADD_OP [ " + tokenBuilder + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
-                } else if(tokenBuilder.equals("{")) {   // {
-                    lineTokens.add(new Token(Kind.OPEN_BLOCK, tokenBuilder, line, i));
-                    log("DEBUG", "OPEN_BLOCK [ " + tokenBuilder + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
-                } else if(tokenBuilder.equals("}")) {   // }
-                    lineTokens.add(new Token(Kind.CLOSE_BLOCK, tokenBuilder, line, i));
-                    log("DEBUG", "CLOSE_BLOCK [ " + tokenBuilder + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
-                } else if(tokenBuilder.equals("(")) {   // (
-                    lineTokens.add(new Token(Kind.OPEN_PAREN, tokenBuilder, line, i));
-                    log("DEBUG", "OPEN_PAREN [ " + tokenBuilder + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
-                } else if(tokenBuilder.equals(")")) {   // )
-                    lineTokens.add(new Token(Kind.CLOSE_PAREN, tokenBuilder, line, i));
-                    log("DEBUG", "CLOSE_PAREN [ " + tokenBuilder + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
-                } else if(tokenBuilder.equals("$")) {   // $
-                    lineTokens.add(new Token(Kind.EOP, tokenBuilder, line, i));
-                    log("DEBUG", "EOP [ " + tokenBuilder + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
-                } else if (tokenBuilder.equals("=")) {
-                    lookahead = Character.toString(charList[i+1]);
-                    if(lookahead.equals("=")) {         // ==
-                        i++; // increment position
-                        tokenBuilder += lookahead;
-                        lineTokens.add(new Token(Kind.EQUALITY_OP, tokenBuilder, line, i));
-                        log("DEBUG", "EQUALITY_OP [ " + tokenBuilder + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
-                    } else {                                    // =
-                        lineTokens.add(new Token(Kind.ASSIGN_OP, tokenBuilder, line, i));
-                        log("DEBUG", "ASSIGN_OP [ " + tokenBuilder + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
+                // SYMBOL DETECTION
+                case CLASS_SYMBOL:
+                    addToken(SYMBOL_KIND[c], pos, col);
+                    pos++;
+                    break;
+                case CLASS_EQUALS:
+                    if(peek(pos+1) == '=') {        // ==
+                        addToken(Kind.EQUALITY_OP, pos, col+1);
+                        pos += 2;
+                    } else {                        // =
+                        addToken(Kind.ASSIGN_OP, pos, col);
+                        pos++;
                     }
-                } else if (tokenBuilder.equals("!")) {  // !
-                    lookahead = Character.toString(charList[i+1]);
-                    if(lookahead.equals("=")) {         // !=
-                        i++; // increment position
-                        tokenBuilder += lookahead;
-                        lineTokens.add(new Token(Kind.INEQUALITY_OP, tokenBuilder, line, i));
-                        log("DEBUG", "INEQUALITY_OP [ " + tokenBuilder + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
+                    break;
+                case CLASS_BANG:
+                    if(peek(pos+1) == '=') {        // !=
+                        addToken(Kind.INEQUALITY_OP, pos, col+1);
+                        pos += 2;
                     } else {
-                        errorCount++;
-                        log("ERROR", "Unrecognized token [ " + tokenBuilder + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
+                        error("Unrecognized token [ ! ]", col);
+                        pos++;
                     }
-                }
+                    break;
 
-            // DIGIT DETECTION
-            } else if(isDigit(tokenBuilder)) {
-                lineTokens.add(new Token(Kind.DIGIT, tokenBuilder, line, i));
-                log("DEBUG", "DIGIT [ " + tokenBuilder + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
-
-            // QUOTE DETECTION
-            } else if(tokenBuilder.equals("\"")) {
-                // add and log open quote
-                lineTokens.add(new Token(Kind.QUOTE, tokenBuilder, line, i));
-                log("DEBUG", "QUOTE [ " + tokenBuilder + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
-                
-                i++; // increment to first expected char and set temp string to keep track of quote characters
-                String temp = Character.toString(charList[i]);
-
-                try {
-                    while(!temp.equals("\"")) {
-                        // add and log chars within quote
-                        if(isLetter(temp) || temp.equals(" ")) {
-                            lineTokens.add(new Token(Kind.CHAR, temp, line, i));
-                            log("DEBUG", "CHAR [ " + temp + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
-                            i++; // increment position
-                            temp = Character.toString(charList[i]);
-                        } else {
-                            log("ERROR", "Unrecognized character [ " + temp + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
-                            errorCount++;
-                            i++; // increment position and reassign temp to continue loop even after invalid character is recognized
-                            temp = Character.toString(charList[i]);
-                        }
-                    }
-                    // add and log close quote if no errors were generated
-                    lineTokens.add(new Token(Kind.QUOTE, tokenBuilder, line, i));
-                    log("DEBUG", "QUOTE [ " + tokenBuilder + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
-                } catch (ArrayIndexOutOfBoundsException ex) {
-                    log("ERROR", "Unclosed quote [ \" ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
-                    errorCount++;
-                }
-            
-            // COMMENT DETECTION
-            } else if (tokenBuilder.equals("/")) {
-                lookahead = Character.toString(charList[i+1]);
-
-                if(lookahead.equals("*")) {
-                    i = i+2; // adjust position to first symbol after comment open
-                    String current = Character.toString(charList[i]);
-                    
-                    try {
-                        while(!current.equals("*")) {
-                            current = Character.toString(charList[i+1]);
-                            i++; // increment position
-
-                            if(current.equals("*") && Character.toString(charList[i+1]).equals("/")) {
-                                i++; // adjust position to first symbol after comment close
-                                break;
-                            }
-                        }
-                    } catch (ArrayIndexOutOfBoundsException ex) {
-                        log("ERROR", "Unclosed comment [ */ ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
-                    errorCount++;
-                    }
-                }
+                // DIGIT DETECTION
+                case CLASS_DIGIT:
+                    addToken(Kind.DIGIT, pos, col);
+                    pos++;
+                    break;
+
+                // QUOTE DETECTION
+                case CLASS_QUOTE:
+                    pos = quote(pos, col);
+                    break;
+
+                // COMMENT DETECTION
+                case CLASS_SLASH:
+                    pos = comment(pos);
+                    break;
 
-            // WHITESPACE DETECTION
-            } else if(isWhiteSpace(tokenBuilder)) {
-                // do nothing on whitespace detection
-            
-            // ERROR DETECTION
+                // WHITESPACE DETECTION
+                case CLASS_SPACE:
+                    // do nothing on whitespace detection
+                    pos++;
+                    break;
+                case CLASS_NEWLINE:
+                    pos = nextLine(pos);
+                    break;
+
+                // ERROR DETECTION
+                default:
+                    error("Unrecognized token [ " + c + " ]", col);
+                    pos++;
+                    break;
+            }
+        }
+
+        // a missing "\n" at the end of the last line still ends the line
+        if(lineStart < length) {
+            line++;
+        }
+    }
+
+    /**
+     * ID or keyword beginning with the letter at the given index
+     * a keyword is recognized if the letters beginning here spell one (even
+     *      if more letters follow), otherwise only the first letter is taken as an ID
+     * @param pos index of first letter
+     * @param col position of first letter within the line
+     * @return index of the next character to lex
+     */
+    private int letter(int pos, int col) {
+        // ID DETECTION
+        if(classOf(peek(pos+1)) != CLASS_LETTER) {
+            addToken(Kind.ID, pos, col);
+            return pos + 1;
+        }
+
+        // KEYWORD DETECTION
+        Kind keyword = Keywords.match(source, pos, length);
+        if(keyword != Kind.ERROR) {
+            addToken(keyword, pos, col);
+            return pos + Keywords.lexeme(keyword).length();
+        }
+
+        // backtrack
+        addToken(Kind.ID, pos, col);
+        return pos + 1;
+    }
+
+    /**
+     * string literal beginning with the quote at the given index
+     * @param pos index of open quote
+     * @param col position of open quote within the line
+     * @return index of the next character to lex
+     */
+    private int quote(int pos, int col) {
+        // add and log open quote
+        addToken(Kind.QUOTE, pos, col);
+
+        int p = pos + 1;
+        while(true) {
+            char c = peek(p);
+
+            if(c == '"') {
+                // add and log close quote
+                addToken(Kind.QUOTE, p, p - lineStart);
+                return p + 1;
+            } else if(classOf(c) == CLASS_LETTER || c == ' ') {
+                // add and log chars within quote
+                addToken(Kind.CHAR, p, p - lineStart);
+                p++;
             } else {
-                errorCount++;
-                log("ERROR", "Unrecognized token [ " + tokenBuilder + " ] detected at (" + Integer.toString(line) + ":" + Integer.toString(i) + ")");
+                error("Unrecognized character [ " + c + " ]", p - lineStart);
+                if(c == '\n') {
+                    // strings can not span lines
+                    error("Unclosed quote [ \" ]", p - lineStart + 1);
+                    return nextLine(p);
+                }
+                p++;
+            }
+        }
+    }
+
+    /**
+     * comment beginning with the slash at the given index
+     * the comment ends at the first "*" after the opening "/*" (skipping the "/"
+     *      of a following "*\/"), and can not span lines
+     * @param pos index of slash
+     * @return index of the next character to lex
+     */
+    private int comment(int pos) {
+        // a slash that does not open a comment is skipped
+        if(peek(pos+1) != '*') {
+            return pos + 1;
+        }
+
+        int p = pos + 2; // first symbol after comment open
+        if(peek(p) == '*') {
+            return p + 1;
+        }
+
+        while(peek(p) != '\n') {
+            p++;
+            if(peek(p) == '*') {
+                // first symbol after comment close
+                return peek(p+1) == '/' ? p + 2 : p + 1;
             }
         }
-        return lineTokens;
+
+        error("Unclosed comment [ */ ]", p - lineStart);
+        return nextLine(p);
     }
 
     /**
-     * returns a copy of the tokenStream for use in future compiler phases
-     * @return ArrayList of Tokenized program
+     * adds a token to the token buffer and logs it
+     * @param kind Kind of token
+     * @param offset index of token in the program
+     * @param col position of token within the line
      */
-    public ArrayList<Token> getTokenStream() {
-        ArrayList<Token> clonedList = new ArrayList<>(tokenStream.size());
-        for(Token t : tokenStream) {
-            clonedList.add(t);
+    private void addToken(Kind kind, int offset, int col) {
+        tokens.add(kind, line, col, offset);
+        if(output.isVerbose()) {
+            log("DEBUG", kind + " [ " + tokens.getValue(tokens.size()-1) + " ] detected at (" + line + ":" + col + ")");
         }
-        return clonedList;
     }
 
     /**
-     * outputs warning message if end of program symbol is not the last symbol in the tokenStream
+     * counts and logs a lex error
+     * @param msg description of the error
+     * @param col position of the error within the line
+     */
+    private void error(String msg, int col) {
+        errorCount++;
+        log("ERROR", msg + " detected at (" + line + ":" + col + ")");
+    }
+
+    /**
+     * getter for tokens of the program, for use in future compiler phases
+     * @return TokenBuffer of tokenized program
+     */
+    public TokenBuffer getTokens() {
+        return tokens;
+    }
+
+    /**
+     * outputs warning message if end of program symbol is not the last symbol in the token buffer
      */
     private void checkEOP(int line) {
-        if(!tokenStream.get(tokenStream.size()-1).getKind().equals(Kind.EOP)) {
+        if(tokens.isEmpty() || tokens.getKind(tokens.size()-1) != Kind.EOP) {
             log("WARNING", "missing EOP symbol [ $ ]");
             warningCount++;
             log("INFO", "EOP symbol [ $ ] added to token stream");
-            tokenStream.add(new Token(Kind.EOP, "$", line, 0));
+            tokens.add(Kind.EOP, line, 0, -1);
         }
     }
 
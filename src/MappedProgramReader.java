@@ -0,0 +1,108 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-mapped source of programs for the compiler
+ * maps the input file with FileChannel.map and hands each program to the
+ *      compiler as a ByteSequence view over the mapped bytes, so no String
+ *      is made for a program or any of its lines
+ *
+ * Note: bytes are read as ISO-8859-1 characters and lines end at '\n' only
+ *      ('\r' of a "\r\n" pair is left in place and lexed as whitespace)
+ */
+public class MappedProgramReader implements ProgramSource {
+
+    // largest region mapped at once, files larger than this are mapped in windows
+    private static final long MAX_WINDOW = 1L << 30;
+
+    private FileChannel channel;
+    private long fileSize;
+
+    private MappedByteBuffer window;    // currently mapped region of the file
+    private long windowStart;           // file offset of the first byte in the window
+    private int windowSize;             // number of bytes in the window
+
+    private long position;              // file offset of the start of the next program
+
+    /**
+     * constructor for MappedProgramReader, opens and maps the given file
+     * @param fileName name of test program(s) file
+     * @throws IOException if the file can not be opened or mapped
+     */
+    public MappedProgramReader(String fileName) throws IOException {
+        channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        fileSize = channel.size();
+        position = 0;
+        map(0);
+    }
+
+    /**
+     * maps a window of the file beginning at the given offset
+     * @param start file offset of the first byte to map
+     */
+    private void map(long start) throws IOException {
+        windowStart = start;
+        windowSize = (int) Math.min(MAX_WINDOW, fileSize - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+    }
+
+    /**
+     * finds the end of the line holding the next '$' and returns the program before it
+     * @return view of the next program (including its line terminators), or null if no programs remain
+     * @throws IOException if the file can not be mapped
+     */
+    public CharSequence next() throws IOException {
+        while(position < fileSize) {
+            int start = (int) (position - windowStart);
+            boolean lineHasDelimiter = false;
+
+            for(int i = start; i < windowSize; i++) {
+                byte b = window.get(i);
+                if(b == '$') {
+                    lineHasDelimiter = true;
+                } else if(b == '\n') {
+                    if(lineHasDelimiter) {
+                        return take(start, i + 1);
+                    }
+                    lineHasDelimiter = false;
+                }
+            }
+
+            if(windowStart + windowSize == fileSize) {
+                // a final line without a line terminator still counts as a line
+                if(lineHasDelimiter) {
+                    return take(start, windowSize);
+                }
+                // anything after the last '$' is not a program
+                position = fileSize;
+            } else if(start == 0) {
+                throw new IOException("Program starting at byte " + position + " is larger than " + MAX_WINDOW + " bytes");
+            } else {
+                // program runs past the end of the window, map again starting at the program
+                map(position);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * returns view over a program in the current window and moves past it
+     * @param start index of first byte of the program in the window
+     * @param end index after the last byte of the program in the window
+     * @return ByteSequence view of the program
+     */
+    private CharSequence take(int start, int end) {
+        position = windowStart + end;
+        return new ByteSequence(window, start, end - start);
+    }
+
+    /**
+     * closes the underlying file (mapped windows stay valid until collected)
+     */
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,161 @@
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory cache of compilation results, for a compiler that stays up between batches
+ * keeps at most a given number of results and bytes, dropping the least recently
+ *      used first; every method takes one lock, so any number of compile threads
+ *      can share it (a lookup is a hash probe, so the lock is held only briefly)
+ *
+ * may be put in front of another ResultCache (such as a CompilationCache): a miss
+ *      here is looked up there, and every result stored is stored there too
+ */
+public class MemoryCache implements ResultCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    // rough bytes of a cached result besides its image and diagnostics (key, map entry, objects)
+    private static final int OVERHEAD = 256;
+    // rough bytes per token of the tokens, trees and tables a CompilerService result keeps
+    private static final int PER_TOKEN = 200;
+
+    private int maxEntries;
+    private long maxBytes;
+    private ResultCache backing;
+
+    // results by key, least recently used first
+    private LinkedHashMap<String, CompilationResult> entries;
+    private long totalBytes;
+
+    // statistics
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * constructor for MemoryCache
+     * @param maxEntries most results to keep
+     * @param maxBytes most bytes of results to keep (estimated)
+     * @param backing cache to look up misses in and store results to (null if none)
+     */
+    public MemoryCache(int maxEntries, long maxBytes, ResultCache backing) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.backing = backing;
+
+        entries = new LinkedHashMap<>(16, 0.75f, true);
+        totalBytes = 0;
+    }
+
+    /**
+     * looks up the result of a program, here and then in the backing cache
+     * @param key cache key of the program
+     * @return cached result, or null on a miss
+     */
+    public CompilationResult get(String key) {
+        synchronized(this) {
+            CompilationResult result = entries.get(key);
+            if(result != null) {
+                hits++;
+                return result;
+            }
+            misses++;
+        }
+
+        // outside the lock, the backing cache may read a file
+        CompilationResult result = backing == null ? null : backing.get(key);
+        if(result != null) {
+            add(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * stores the result of a program, here and in the backing cache
+     * @param key cache key of the program
+     * @param result result of compiling the program
+     * @throws IOException if the backing cache can not store the result
+     */
+    public void put(String key, CompilationResult result) throws IOException {
+        add(key, result);
+        if(backing != null) {
+            backing.put(key, result);
+        }
+    }
+
+    /**
+     * adds a result, evicting the least recently used results if the cache is over its bounds
+     * @param key cache key of the program
+     * @param result result of compiling the program
+     */
+    private synchronized void add(String key, CompilationResult result) {
+        CompilationResult old = entries.put(key, result);
+        totalBytes += sizeOf(result) - (old == null ? 0 : sizeOf(old));
+
+        Iterator<Map.Entry<String, CompilationResult>> oldest = entries.entrySet().iterator();
+        while((entries.size() > maxEntries || totalBytes > maxBytes) && oldest.hasNext()) {
+            totalBytes -= sizeOf(oldest.next().getValue());
+            oldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * estimates the memory held by a result
+     * @param result result of compiling a program
+     * @return approximate bytes
+     */
+    private static long sizeOf(CompilationResult result) {
+        long size = OVERHEAD + (result.success() ? Heap.SIZE : 0);
+        if(result.getTokens() != null) {
+            size += (long) PER_TOKEN * result.getTokens().size();
+        }
+        for(String line : result.getDiagnostics()) {
+            size += 2L * line.length();
+        }
+        return size;
+    }
+
+    /**
+     * getter for number of hits
+     * @return lookups found in memory
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * getter for number of misses
+     * @return lookups not found in memory (they may still have been found in the backing cache)
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * getter for number of evictions
+     * @return results dropped to stay within the bounds
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * getter for number of results held
+     * @return results in memory
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * getter for estimated bytes held
+     * @return approximate bytes of the results in memory
+     */
+    public synchronized long getBytes() {
+        return totalBytes;
+    }
+}
@@ -1,13 +1,20 @@
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Node class for use in creating a parse tree
+ * a Node is frozen once its tree is part of a CompilationResult: from then on it
+ *      can not be changed, as the result may be shared between threads
  */
 public class Node {
 
     private String value;
     private Node parent;
-    private ArrayList<Node> children;
+    private List<Node> children;
+    private Symbol symbol;      // declaration an id refers to (set by the semantic analyzer)
+    private SymbolTable scope;  // scope a Block opens (set by the semantic analyzer)
+    private boolean frozen;
 
     /**
      * constructor for Node given only a value (null parent)
@@ -50,6 +57,7 @@ public class Node {
      * @param p new parent Node
      */
     public void setParent(Node p) {
+        checkNotFrozen();
         parent = p;
     }
 
@@ -58,17 +66,52 @@ public class Node {
      * @param child
      */
     public void addChild(Node child) {
+        checkNotFrozen();
         children.add(child);
     }
 
     /**
-     * getter for children ArrayList
-     * @return ArrayList of child Nodes
+     * getter for children List
+     * @return List of child Nodes (read-only once frozen)
      */
-    public ArrayList<Node> getChildren() {
+    public List<Node> getChildren() {
         return children;
     }
 
+    /**
+     * getter for Node symbol
+     * @return Symbol this id refers to, or null if the Node is not an id
+     */
+    public Symbol getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * setter for Node symbol
+     * @param s Symbol this id refers to
+     */
+    public void setSymbol(Symbol s) {
+        checkNotFrozen();
+        symbol = s;
+    }
+
+    /**
+     * getter for Node scope
+     * @return scope this Block opens, or null if the Node is not a Block
+     */
+    public SymbolTable getScope() {
+        return scope;
+    }
+
+    /**
+     * setter for Node scope
+     * @param s scope this Block opens
+     */
+    public void setScope(SymbolTable s) {
+        checkNotFrozen();
+        scope = s;
+    }
+
     /**
      * checks if Node has children
      * @return true if children ArrayList not empty
@@ -76,4 +119,34 @@ public class Node {
     public boolean hasChildren() {
         return !children.isEmpty();
     }
+
+    /**
+     * makes this Node, its subtree and the symbols and scopes it refers to read-only
+     */
+    public void freeze() {
+        if(frozen) {
+            return;
+        }
+        frozen = true;
+        children = Collections.unmodifiableList(children);
+        if(symbol != null) {
+            symbol.freeze();
+        }
+        if(scope != null) {
+            scope.freeze();
+        }
+        for(Node child : children) {
+            child.freeze();
+        }
+    }
+
+    /**
+     * checks that this Node may still be changed
+     * @throws IllegalStateException if the Node is frozen
+     */
+    private void checkNotFrozen() {
+        if(frozen) {
+            throw new IllegalStateException("Node " + value + " is part of a compilation result and can not be changed");
+        }
+    }
 }
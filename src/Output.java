@@ -0,0 +1,128 @@
+import java.io.PrintStream;
+import java.util.ArrayList;
+
+/**
+ * Output buffer for a single program
+ * collects log messages and printed tables from each compiler component so
+ *      programs can be compiled independently and flushed in input order
+ */
+public class Output {
+
+    private boolean verbose;    // verbose mode, replaces the old shared debug switch
+    private boolean enabled;    // false if everything written is thrown away
+    private boolean recording;  // false if diagnostics are thrown away too
+
+    private StringBuilder out;  // standard output for this program
+    private StringBuilder err;  // error output for this program
+
+    private ArrayList<String> diagnostics;  // WARNING and ERROR log lines, kept even when not verbose
+
+    /**
+     * constructor for Output buffer
+     * @param verbose true if DEBUG/INFO log messages should be kept
+     */
+    public Output(boolean verbose) {
+        this.verbose = verbose;
+        enabled = true;
+        recording = true;
+        out = new StringBuilder();
+        err = new StringBuilder();
+        diagnostics = new ArrayList<>();
+    }
+
+    /**
+     * returns an Output that keeps nothing, for running phases without
+     *      paying for log messages or tree/table formatting (e.g. benchmarks)
+     * @return discarding Output
+     */
+    public static Output discard() {
+        Output none = new Output(false);
+        none.enabled = false;
+        none.recording = false;
+        return none;
+    }
+
+    /**
+     * returns an Output that keeps only WARNING and ERROR log lines, for compiling
+     *      into a CompilationResult without formatting anything else
+     * @return Output that only records diagnostics
+     */
+    public static Output diagnosticsOnly() {
+        Output diagnostics = new Output(false);
+        diagnostics.enabled = false;
+        return diagnostics;
+    }
+
+    /**
+     * getter for verbose mode
+     * @return true if log messages are kept
+     */
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    /**
+     * getter for enabled
+     * @return false if everything printed is thrown away (callers can skip formatting it)
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * appends a line to the standard output buffer
+     * @param line line to append (trees and tables are only formatted if the line is kept)
+     */
+    public void println(Object line) {
+        if(enabled) {
+            out.append(line).append('\n');
+        }
+    }
+
+    /**
+     * appends a line to the error output buffer
+     * @param line line to append
+     */
+    public void errorln(Object line) {
+        if(enabled) {
+            err.append(line).append('\n');
+        }
+    }
+
+    /**
+     * records a WARNING or ERROR log line, so it can be reported again without
+     *      recompiling (see CompilationCache)
+     * @param line formatted log line
+     */
+    public void diagnostic(String line) {
+        if(recording) {
+            diagnostics.add(line);
+        }
+    }
+
+    /**
+     * getter for diagnostics
+     * @return every WARNING and ERROR log line recorded so far, in order
+     */
+    public ArrayList<String> getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * writes buffered output to the given streams and clears the buffers
+     * @param stdout stream for standard output
+     * @param stderr stream for error output
+     */
+    public void flush(PrintStream stdout, PrintStream stderr) {
+        if(out.length() > 0) {
+            stdout.print(out);
+            stdout.flush();
+            out.setLength(0);
+        }
+        if(err.length() > 0) {
+            stderr.print(err);
+            stderr.flush();
+            err.setLength(0);
+        }
+    }
+}
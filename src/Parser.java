@@ -1,5 +1,3 @@
-import java.util.ArrayList;
-
 /**
  * Parser Component of Compiler
  */
@@ -8,17 +6,20 @@ public class Parser extends Component {
     private int warningCount;   // number of detected warnings
     private int errorCount;     // number of detected errors
 
-    private ArrayList<Token> tokenStream;
+    private TokenCursor tokens;     // read-only cursor over tokens recognized by the lexer
     private SyntaxTree CST;
 
     /**
      * constructor for parse component. begins recursive descent parse on constructor call
-     * @param stream ArrayList of Tokens recognized by the lexer
+     * @param tokens TokenBuffer of tokens recognized by the lexer
      * @param programNo program number for debug printing
+     * @param output output buffer for the current program
      */
-    public Parser(ArrayList<Token> stream, int programNo) {
+    public Parser(TokenBuffer tokens, int programNo, Output output) {
+        super(output);
+
         // initialize flags and variables
-        tokenStream = stream;
+        this.tokens = new TokenCursor(tokens);
 
         warningCount = 0;
         errorCount = 0;
@@ -28,49 +29,31 @@ public class Parser extends Component {
         // entry point for recursive descent parsing
         parse();
 
-        // print success or failure message, as well as CST on success
+        // print success or failure message
         if(success()) {
             log("INFO", "Parse completed with " + errorCount + " error(s) and " + warningCount + " warning(s)\n");
-            printCST(programNo);
         } else {
             log("ERROR", "Parse failed with " + errorCount + " error(s) and " + warningCount + " warning(s)\n");
         }
     }
 
-    /**
-     * removes and returns next Token off of Token stream
-     * @return next Token
-     */
-    private Token pop() {
-        return tokenStream.remove(0);
-    }
-
-    /**
-     * peeks at next Token in the Token stream
-     * @return next Token
-     */
-    private Token peek() {
-        return tokenStream.get(0);
-    }
-
     /**
      * matches expected value to next expected Token in stream
      * @param expectedValue next expected value
      */
     private void match(String expectedValue) {
         // if end of stream reached, error
-        if(tokenStream.isEmpty()) {
+        if(!tokens.hasNext()) {
             log("ERROR", "Expected [ " + expectedValue + " ], found end of stream.");
             errorCount++;
         } else {
-            Token currentToken = peek();
             // if current Token value equals expected value
-            if(currentToken.getValue().equals(expectedValue)) {
+            if(tokens.peekValue().equals(expectedValue)) {
                 // remove Token and continue
-                pop();
+                tokens.advance();
                 // VALID EXPECTED MSG
             } else {
-                log("ERROR", "Expected [ " + expectedValue + " ], found [ " + currentToken.getValue() + " ] at (" + currentToken.getLine() + ":" + currentToken.getPos() + ")");
+                log("ERROR", "Expected [ " + expectedValue + " ], found [ " + tokens.peekValue() + " ] at (" + tokens.peekLocation() + ")");
                 errorCount++;
             }
         }
@@ -129,31 +112,37 @@ public class Parser extends Component {
     /**
      * StatementList ::== Statement StatementList
      *               ::== epsilon (empty) production
+     *
+     * the tail call on StatementList is written as a loop (each StatementList Node
+     *      is still nested in the previous one) so long programs do not run out of stack
      */
     private void parseStatementList(Node parent) {
-        // log debug message
-        log("DEBUG", "parseStatementList()");
-
-        // create new Node and add it to tree
-        Node statementListNode = new Node("StatementList", parent);
-        parent.addChild(statementListNode);
-
-        // peek at current Token for Kind checking
-        Kind currentKind = peek().getKind();
-
-        // if the expected Kind of Token is in the first set for a Statement
-        if(currentKind == Kind.PRINT || 
-                currentKind == Kind.ID || 
-                currentKind == Kind.TYPE_INT || 
-                currentKind == Kind.TYPE_STRING || 
-                currentKind == Kind.TYPE_BOOLEAN || 
-                currentKind == Kind.WHILE || 
-                currentKind == Kind.IF ||
-                currentKind == Kind.OPEN_BLOCK) {
-            parseStatement(statementListNode);
-            parseStatementList(statementListNode);
-        } else {
-            // do nothing, epsilon (empty) production
+        while(true) {
+            // log debug message
+            log("DEBUG", "parseStatementList()");
+
+            // create new Node and add it to tree
+            Node statementListNode = new Node("StatementList", parent);
+            parent.addChild(statementListNode);
+
+            // peek at current Token for Kind checking
+            Kind currentKind = tokens.peekKind();
+
+            // if the expected Kind of Token is in the first set for a Statement
+            if(currentKind == Kind.PRINT || 
+                    currentKind == Kind.ID || 
+                    currentKind == Kind.TYPE_INT || 
+                    currentKind == Kind.TYPE_STRING || 
+                    currentKind == Kind.TYPE_BOOLEAN || 
+                    currentKind == Kind.WHILE || 
+                    currentKind == Kind.IF ||
+                    currentKind == Kind.OPEN_BLOCK) {
+                parseStatement(statementListNode);
+                parent = statementListNode;
+            } else {
+                // do nothing, epsilon (empty) production
+                return;
+            }
         }
     }
 
@@ -174,8 +163,7 @@ public class Parser extends Component {
         parent.addChild(statementNode);
 
         // peek at current Token for Kind checking
-        Token currentToken = peek();
-        Kind currentKind = currentToken.getKind();
+        Kind currentKind = tokens.peekKind();
         
         // PrintStatement
         if(currentKind == Kind.PRINT) {
@@ -199,7 +187,7 @@ public class Parser extends Component {
             parseBlock(statementNode);
         // error - unexpected token
         } else {
-            log("ERROR", "Expected Statement [PRINT, ID, TYPE_INT, TYPE_STRING, TYPE_BOOLEAN, WHILE, IF, OPEN_BLOCK] , found " + currentKind + " with value [ " + currentToken.getValue() + " ] at (" + currentToken.getLine() + ":" + currentToken.getPos() + ")");
+            log("ERROR", "Expected Statement [PRINT, ID, TYPE_INT, TYPE_STRING, TYPE_BOOLEAN, WHILE, IF, OPEN_BLOCK] , found " + currentKind + " with value [ " + tokens.peekValue() + " ] at (" + tokens.peekLocation() + ")");
         }
     }
 
@@ -311,8 +299,7 @@ public class Parser extends Component {
         parent.addChild(exprNode);
 
         // peek at current Token for Kind checking
-        Token currentToken = peek();
-        Kind currentKind = currentToken.getKind();
+        Kind currentKind = tokens.peekKind();
 
         if(currentKind == Kind.DIGIT) {
             parseIntExpr(exprNode);
@@ -325,7 +312,8 @@ public class Parser extends Component {
         } else if (currentKind == Kind.ID) {
             parseId(exprNode);
         } else {
-            log("ERROR", "Expected Expr [TYPE_INT, TYPE_STRING, TYPE_BOOLEAN, FALSE, TRUE, ID] , found " + currentKind + " with value [ " + currentToken.getValue() + " ] at (" + currentToken.getLine() + ":" + currentToken.getPos() + ")");
+            log("ERROR", "Expected Expr [TYPE_INT, TYPE_STRING, TYPE_BOOLEAN, FALSE, TRUE, ID] , found " + currentKind + " with value [ " + tokens.peekValue() + " ] at (" + tokens.peekLocation() + ")");
+            errorCount++;
         }
     }
 
@@ -345,7 +333,7 @@ public class Parser extends Component {
         parseDigit(intExprNode);
 
         // peek at current Token for Kind checking
-        Kind currentKind = peek().getKind();
+        Kind currentKind = tokens.peekKind();
 
         if(currentKind == Kind.ADD_OP) {
             parseIntOp(intExprNode);
@@ -386,7 +374,7 @@ public class Parser extends Component {
         parent.addChild(booleanExprNode);
 
         // peek at current Token for Kind checking
-        Kind currentKind = peek().getKind();
+        Kind currentKind = tokens.peekKind();
 
         if(currentKind == Kind.TRUE || currentKind == Kind.FALSE) {
             parseBoolVal(booleanExprNode);
@@ -431,8 +419,8 @@ public class Parser extends Component {
         parent.addChild(charListNode);
 
         // peek at current Token for Kind and Value checking
-        Kind currentKind = peek().getKind();
-        String currentValue = peek().getValue();
+        Kind currentKind = tokens.peekKind();
+        String currentValue = tokens.peekValue();
 
         if(currentKind == Kind.CHAR) {
             if(currentValue.equals(" ")) {
@@ -458,7 +446,7 @@ public class Parser extends Component {
         parent.addChild(typeNode);
 
         // peek at current Token for Kind checking
-        Kind currentKind = peek().getKind();
+        Kind currentKind = tokens.peekKind();
 
         if(currentKind == Kind.TYPE_INT) {
             match("int");
@@ -484,8 +472,7 @@ public class Parser extends Component {
         parent.addChild(charNode);
 
         // peek at current Token for Value checking
-        Token currentToken = peek();
-        String currentValue = currentToken.getValue();
+        String currentValue = tokens.peekValue();
 
         String expectedLetter = "";
 
@@ -516,7 +503,7 @@ public class Parser extends Component {
             case "x": expectedLetter = "x"; break;
             case "y": expectedLetter = "y"; break;
             case "z": expectedLetter = "z"; break;
-            default: log("ERROR", "Expected char [a-z] , found [ " + currentValue + " ] at (" + currentToken.getLine() + ":" + currentToken.getPos() + ")"); break;
+            default: log("ERROR", "Expected char [a-z] , found [ " + currentValue + " ] at (" + tokens.peekLocation() + ")"); break;
         }
 
         match(expectedLetter);
@@ -550,8 +537,7 @@ public class Parser extends Component {
         parent.addChild(digitNode);
 
         // peek at current Token for Value checking
-        Token currentToken = peek();
-        String currentValue = currentToken.getValue();
+        String currentValue = tokens.peekValue();
 
         String expectedDigit = "";
 
@@ -566,7 +552,7 @@ public class Parser extends Component {
             case "7": expectedDigit = "7"; break;
             case "8": expectedDigit = "8"; break;
             case "9": expectedDigit = "9"; break;
-            default: log("ERROR", "Expected digit [0-9] , found [ " + currentValue + " ] at (" + currentToken.getLine() + ":" + currentToken.getPos() + ")"); break;
+            default: log("ERROR", "Expected digit [0-9] , found [ " + currentValue + " ] at (" + tokens.peekLocation() + ")"); break;
         }
 
         match(expectedDigit);
@@ -585,8 +571,7 @@ public class Parser extends Component {
         parent.addChild(boolOpNode);
 
         // peek at current Token for Value checking
-        Token currentToken = peek();
-        Kind currentKind = currentToken.getKind();
+        Kind currentKind = tokens.peekKind();
 
         if(currentKind == Kind.EQUALITY_OP) {
             match("==");
@@ -595,7 +580,8 @@ public class Parser extends Component {
             match("!=");
             boolOpNode.addChild(new Node("!=", boolOpNode));
         } else {
-            log("ERROR", "Expected boolop [==, !=] , found [ " + currentToken.getValue() + " ] at (" + currentToken.getLine() + ":" + currentToken.getPos() + ")");
+            log("ERROR", "Expected boolop [==, !=] , found [ " + tokens.peekValue() + " ] at (" + tokens.peekLocation() + ")");
+            errorCount++;
         }
     }
 
@@ -611,8 +597,7 @@ public class Parser extends Component {
         parent.addChild(boolValNode);
 
         // peek at current Token for Value checking
-        Token currentToken = peek();
-        Kind currentKind = currentToken.getKind();
+        Kind currentKind = tokens.peekKind();
 
         if(currentKind == Kind.TRUE) {
             match("true");
@@ -621,7 +606,7 @@ public class Parser extends Component {
             match("false");
             boolValNode.addChild(new Node("false", boolValNode));
         } else {
-            log("ERROR", "Expected boolval [true, false] , found [ " + currentKind + " ] at (" + currentToken.getLine() + ":" + currentToken.getPos() + ")");
+            log("ERROR", "Expected boolval [true, false] , found [ " + currentKind + " ] at (" + tokens.peekLocation() + ")");
         }
     }
 
@@ -641,13 +626,11 @@ public class Parser extends Component {
     }
 
     /**
-     * prints formatted concrete syntax tree
+     * getter for concrete syntax tree
+     * @return SyntaxTree CST
      */
-    private void printCST(int programNo) {
-        // print concrete syntax tree
-        System.out.println("Program " + programNo + " Concrete Syntax Tree");
-        System.out.println("------------------------------------");
-        System.out.println(CST.toString());
+    public SyntaxTree getCST() {
+        return CST;
     }
 
     /**
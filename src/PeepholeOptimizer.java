@@ -0,0 +1,385 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Peephole optimizer for the Code Generator
+ * runs over the emitted instructions after static slots are assigned and before
+ *      link(), so fixups and labels are still symbolic and simply move with the code
+ *
+ * each round walks the code forward, tracking constants known to be in A, X, Y, the
+ *      Z flag and static slots (forgotten wherever a label is bound), and removes:
+ *      - loads of a value the register already holds, and stores of a value the slot already holds
+ *      - loads, compares and stores whose result is overwritten before it is read (or the program halts)
+ *      - branches whose outcome is known, or that only go to the next instruction
+ *      - code after a branch that is always taken, up to the next label
+ * rounds repeat until nothing more is removed
+ *
+ * memory at FF is always 00 (it terminates "true" in the heap), so comparing X to
+ *      it is constant whenever X is; SYS is taken to leave registers and memory unchanged
+ */
+public class PeepholeOptimizer {
+
+    // length of each opcode in bytes (0 if not part of the subset)
+    private static final int[] LENGTH = new int[256];
+
+    static {
+        LENGTH[Emitter.LDA_CONST] = 2;
+        LENGTH[Emitter.LDA_MEM] = 3;
+        LENGTH[Emitter.STA] = 3;
+        LENGTH[Emitter.ADC] = 3;
+        LENGTH[Emitter.LDX_CONST] = 2;
+        LENGTH[Emitter.LDX_MEM] = 3;
+        LENGTH[Emitter.LDY_CONST] = 2;
+        LENGTH[Emitter.LDY_MEM] = 3;
+        LENGTH[Emitter.NOP] = 1;
+        LENGTH[Emitter.BRK] = 1;
+        LENGTH[Emitter.CPX] = 3;
+        LENGTH[Emitter.BNE] = 2;
+        LENGTH[Emitter.INC] = 3;
+        LENGTH[Emitter.SYS] = 1;
+    }
+
+    private Emitter code;
+
+    // current round's view of the code, one entry per instruction
+    private int count;
+    private int[] position;
+    private int[] opcode;
+    private int[] operand;          // constant, fixed address or branch offset (-1 for a static variable or label)
+    private Fixup[] fixup;          // placeholder in the operand, if any
+    private boolean[] opaque;       // bytes that are not a whole instruction of the subset (left alone)
+    private boolean[] removed;
+    private HashSet<Integer> targets;   // positions labels are bound at
+
+    // statistics
+    private int loads;
+    private int stores;
+    private int branches;
+    private int unreachable;
+    private int savedBytes;
+
+    /**
+     * constructor for PeepholeOptimizer, optimizes the code in place
+     * @param code emitted code with static slots assigned but not yet linked
+     */
+    public PeepholeOptimizer(Emitter code) {
+        this.code = code;
+
+        int saved;
+        do {
+            decode();
+            propagate();
+            removeDead();
+            saved = code.remove(removed);
+            savedBytes += saved;
+        } while(saved > 0);
+    }
+
+    /**
+     * splits the code into instructions and finds every label target
+     */
+    private void decode() {
+        ArrayList<Integer> starts = code.getStarts();
+        count = starts.size();
+        position = new int[count];
+        opcode = new int[count];
+        operand = new int[count];
+        fixup = new Fixup[count];
+        opaque = new boolean[count];
+        removed = new boolean[count];
+
+        HashMap<Integer, Fixup> sites = new HashMap<>();
+        for(Fixup f : code.getFixups()) {
+            sites.put(f.getSite(), f);
+        }
+        targets = new HashSet<>();
+        for(Label label : code.getLabels()) {
+            if(label.isBound()) {
+                targets.add(label.getPosition());
+            }
+        }
+
+        for(int i = 0; i < count; i++) {
+            int start = starts.get(i);
+            int end = i + 1 < count ? starts.get(i + 1) : code.size();
+            position[i] = start;
+            opcode[i] = code.getByte(start);
+
+            int length = LENGTH[opcode[i]];
+            if(length == 0 || end - start != length) {
+                // raw bytes were appended to this instruction
+                opaque[i] = true;
+            } else if(sites.containsKey(start + 1)) {
+                fixup[i] = sites.get(start + 1);
+                operand[i] = -1;
+            } else if(length == 2) {
+                operand[i] = code.getByte(start + 1);
+            } else if(length == 3) {
+                operand[i] = code.getByte(start + 1) | code.getByte(start + 2) << 8;
+            }
+        }
+    }
+
+    /**
+     * forward pass removing redundant loads and stores, constant branches and unreachable code
+     */
+    private void propagate() {
+        Integer a = null;
+        Integer x = null;
+        Integer y = null;
+        Boolean z = null;       // true if the last compare was equal
+        HashMap<Integer, Integer> slots = new HashMap<>();
+
+        for(int i = 0; i < count; i++) {
+            // another path can reach a label with different values
+            if(opaque[i] || targets.contains(position[i])) {
+                a = x = y = null;
+                z = null;
+                slots.clear();
+                if(opaque[i]) {
+                    continue;
+                }
+            }
+
+            int slot = fixup[i] != null && fixup[i].getVariable() != null ? fixup[i].getVariable().getSlot() : -1;
+            Integer value = slot >= 0 ? slots.get(slot) : null;
+
+            switch(opcode[i]) {
+                case Emitter.LDA_CONST:
+                case Emitter.LDA_MEM:
+                    value = opcode[i] == Emitter.LDA_CONST ? Integer.valueOf(operand[i]) : value;
+                    if(value != null && value.equals(a)) {
+                        removeLoad(i);
+                    } else {
+                        a = value;
+                        z = null;
+                    }
+                    break;
+                case Emitter.LDX_CONST:
+                case Emitter.LDX_MEM:
+                    value = opcode[i] == Emitter.LDX_CONST ? Integer.valueOf(operand[i]) : value;
+                    if(value != null && value.equals(x)) {
+                        removeLoad(i);
+                    } else {
+                        x = value;
+                        z = null;
+                    }
+                    break;
+                case Emitter.LDY_CONST:
+                case Emitter.LDY_MEM:
+                    value = opcode[i] == Emitter.LDY_CONST ? Integer.valueOf(operand[i]) : value;
+                    if(value != null && value.equals(y)) {
+                        removeLoad(i);
+                    } else {
+                        y = value;
+                        z = null;
+                    }
+                    break;
+                case Emitter.STA:
+                    if(slot < 0) {
+                        slots.clear();
+                    } else if(a != null && a.equals(value)) {
+                        removed[i] = true;
+                        stores++;
+                    } else if(a == null) {
+                        slots.remove(slot);
+                    } else {
+                        slots.put(slot, a);
+                    }
+                    break;
+                case Emitter.ADC:
+                    a = a != null && value != null ? (a + value) & 0xFF : null;
+                    z = null;
+                    break;
+                case Emitter.INC:
+                    if(slot < 0) {
+                        slots.clear();
+                    } else if(value != null) {
+                        slots.put(slot, (value + 1) & 0xFF);
+                    }
+                    z = null;
+                    break;
+                case Emitter.CPX:
+                    if(slot < 0 && operand[i] == Heap.EMPTY_ADDRESS) {
+                        value = 0;
+                    }
+                    z = x != null && value != null ? x.equals(value) : null;
+                    break;
+                case Emitter.BNE:
+                    if(fixup[i] == null ? operand[i] == 0 : branchesToNext(i)) {
+                        // taken or not, execution goes on at the next instruction
+                        removeBranch(i);
+                    } else if(Boolean.TRUE.equals(z)) {
+                        // never taken
+                        removeBranch(i);
+                    } else if(Boolean.FALSE.equals(z)) {
+                        // always taken, nothing reaches the code after it until a label
+                        while(i + 1 < count && !targets.contains(position[i + 1])) {
+                            i++;
+                            removed[i] = true;
+                            unreachable++;
+                        }
+                    }
+                    break;
+                case Emitter.NOP:
+                    removed[i] = true;
+                    break;
+                default:
+                    // SYS and BRK change nothing that is tracked
+                    break;
+            }
+        }
+    }
+
+    /**
+     * backward pass removing loads, compares and stores whose result is never read
+     */
+    private void removeDead() {
+        for(int i = count - 1; i >= 0; i--) {
+            if(removed[i] || opaque[i]) {
+                continue;
+            }
+            switch(opcode[i]) {
+                case Emitter.LDA_CONST:
+                case Emitter.LDA_MEM:
+                case Emitter.LDX_CONST:
+                case Emitter.LDX_MEM:
+                case Emitter.LDY_CONST:
+                case Emitter.LDY_MEM:
+                    if(isDead(i)) {
+                        removeLoad(i);
+                    }
+                    break;
+                case Emitter.CPX:
+                    if(isDead(i)) {
+                        removeBranch(i);
+                    }
+                    break;
+                case Emitter.STA:
+                    if(fixup[i] != null && isDead(i)) {
+                        removed[i] = true;
+                        stores++;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * checks if what an instruction writes (a register, the Z flag or a static slot) is
+     *      overwritten on the straight line after it before anything reads it
+     * a branch out, or bytes outside the subset, count as a read
+     * @param i index of instruction
+     * @return true if the instruction can be removed
+     */
+    private boolean isDead(int i) {
+        int op = opcode[i];
+        int slot = op == Emitter.STA ? fixup[i].getVariable().getSlot() : -1;
+
+        for(int j = i + 1; j < count; j++) {
+            if(removed[j]) {
+                continue;
+            }
+            if(opaque[j]) {
+                return false;
+            }
+            int next = opcode[j];
+            if(next == Emitter.BRK) {
+                return true;
+            }
+
+            switch(op) {
+                case Emitter.LDA_CONST:
+                case Emitter.LDA_MEM:
+                    if(next == Emitter.STA || next == Emitter.ADC || next == Emitter.BNE) {
+                        return false;
+                    } else if(next == Emitter.LDA_CONST || next == Emitter.LDA_MEM) {
+                        return true;
+                    }
+                    break;
+                case Emitter.LDX_CONST:
+                case Emitter.LDX_MEM:
+                    if(next == Emitter.CPX || next == Emitter.SYS || next == Emitter.BNE) {
+                        return false;
+                    } else if(next == Emitter.LDX_CONST || next == Emitter.LDX_MEM) {
+                        return true;
+                    }
+                    break;
+                case Emitter.LDY_CONST:
+                case Emitter.LDY_MEM:
+                    if(next == Emitter.SYS || next == Emitter.BNE) {
+                        return false;
+                    } else if(next == Emitter.LDY_CONST || next == Emitter.LDY_MEM) {
+                        return true;
+                    }
+                    break;
+                case Emitter.CPX:
+                    if(next == Emitter.BNE) {
+                        return false;
+                    } else if(next == Emitter.CPX) {
+                        return true;
+                    }
+                    break;
+                default:
+                    // STA: any other access to the slot decides
+                    if(next == Emitter.BNE) {
+                        return false;
+                    } else if(LENGTH[next] == 3 && fixup[j] != null && fixup[j].getVariable() != null
+                            && fixup[j].getVariable().getSlot() == slot) {
+                        return next == Emitter.STA;
+                    }
+                    break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * checks if a branch goes to the instruction right after it
+     * @param i index of branch
+     * @return true if label is bound at the next instruction
+     */
+    private boolean branchesToNext(int i) {
+        Label label = fixup[i].getLabel();
+        int next = i + 1 < count ? position[i + 1] : code.size();
+        return label != null && label.isBound() && label.getPosition() == next;
+    }
+
+    /**
+     * marks a load for removal
+     * @param i index of load
+     */
+    private void removeLoad(int i) {
+        removed[i] = true;
+        loads++;
+    }
+
+    /**
+     * marks a compare or branch for removal
+     * @param i index of compare or branch
+     */
+    private void removeBranch(int i) {
+        removed[i] = true;
+        branches++;
+    }
+
+    /**
+     * getter for number of bytes removed
+     * @return bytes saved over all rounds
+     */
+    public int getSavedBytes() {
+        return savedBytes;
+    }
+
+    /**
+     * summary of what was removed
+     * @return per-kind counts and bytes saved
+     */
+    public String toString() {
+        return savedBytes + " byte(s) saved: " + loads + " load(s), " + stores + " store(s), "
+                + branches + " compare(s) and branch(es), " + unreachable + " unreachable instruction(s) removed";
+    }
+}
@@ -0,0 +1,169 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+/**
+ * Execution profile of a program run on the VirtualMachine
+ * counts, for every address an instruction starts at, how many times it ran, the
+ *      cycles it used (a taken BNE includes its extra cycle) and, for BNE, how many
+ *      times the branch was taken
+ *
+ * the report attributes each address to the AST statement the Code Generator emitted
+ *      it for, so cycles add up per statement and per kind of statement (the cycles
+ *      of a while or if statement are only those of its condition and branches,
+ *      its block's statements are counted on their own)
+ */
+public class Profiler {
+
+    private static final String[] MNEMONICS = new String[256];
+
+    static {
+        MNEMONICS[Emitter.LDA_CONST] = "LDA";
+        MNEMONICS[Emitter.LDA_MEM] = "LDA";
+        MNEMONICS[Emitter.STA] = "STA";
+        MNEMONICS[Emitter.ADC] = "ADC";
+        MNEMONICS[Emitter.LDX_CONST] = "LDX";
+        MNEMONICS[Emitter.LDX_MEM] = "LDX";
+        MNEMONICS[Emitter.LDY_CONST] = "LDY";
+        MNEMONICS[Emitter.LDY_MEM] = "LDY";
+        MNEMONICS[Emitter.NOP] = "NOP";
+        MNEMONICS[Emitter.BRK] = "BRK";
+        MNEMONICS[Emitter.CPX] = "CPX";
+        MNEMONICS[Emitter.BNE] = "BNE";
+        MNEMONICS[Emitter.INC] = "INC";
+        MNEMONICS[Emitter.SYS] = "SYS";
+    }
+
+    private long[] hits;
+    private long[] cycles;
+    private long[] taken;
+
+    /**
+     * constructor for an empty Profiler
+     */
+    public Profiler() {
+        hits = new long[Heap.SIZE];
+        cycles = new long[Heap.SIZE];
+        taken = new long[Heap.SIZE];
+    }
+
+    /**
+     * getter for hit counts (updated by the VirtualMachine)
+     * @return times the instruction at each address was executed
+     */
+    public long[] getHits() {
+        return hits;
+    }
+
+    /**
+     * getter for cycle counts (updated by the VirtualMachine)
+     * @return cycles used by the instruction at each address
+     */
+    public long[] getCycles() {
+        return cycles;
+    }
+
+    /**
+     * getter for taken branch counts (updated by the VirtualMachine)
+     * @return times the branch at each address was taken
+     */
+    public long[] getTaken() {
+        return taken;
+    }
+
+    /**
+     * formats the profile as tables: every executed address, then statements and
+     *      kinds of statement by cycles spent (most first)
+     * @param image executable image that was run
+     * @param sourceMap AST statement each address was generated for
+     * @return formatted profile
+     */
+    public String report(byte[] image, Node[] sourceMap) {
+        StringBuilder report = new StringBuilder();
+        long total = 0;
+        for(long c : cycles) {
+            total += c;
+        }
+
+        // every address that ran, in address order
+        report.append("+------+-----+------------+------------+-------+--------------------------+\n");
+        report.append("| addr | op  |       hits |     cycles | taken | statement                |\n");
+        report.append("+------+-----+------------+------------+-------+--------------------------+\n");
+
+        // cycles of each statement, keyed by the statement Node in the order it first ran
+        LinkedHashMap<Node, long[]> statements = new LinkedHashMap<>();
+        for(int address = 0; address < Heap.SIZE; address++) {
+            if(hits[address] == 0) {
+                continue;
+            }
+            int opcode = image[address] & 0xFF;
+            Node statement = sourceMap[address];
+            String mnemonic = MNEMONICS[opcode] == null ? "???" : MNEMONICS[opcode];
+            String ratio = opcode == Emitter.BNE ? String.format("%4d%%", taken[address] * 100 / hits[address]) : "";
+
+            report.append(String.format("| %02X   | %s | %10d | %10d | %5s | %-24s |\n",
+                    address, mnemonic, hits[address], cycles[address], ratio, name(statement, sourceMap)));
+
+            if(statement != null) {
+                statements.computeIfAbsent(statement, s -> new long[1])[0] += cycles[address];
+            }
+        }
+        report.append("+------+-----+------------+------------+-------+--------------------------+\n\n");
+
+        // statements by cycles spent
+        ArrayList<Node> byCycles = new ArrayList<>(statements.keySet());
+        byCycles.sort((x, y) -> Long.compare(statements.get(y)[0], statements.get(x)[0]));
+
+        report.append("+--------------------------+------------+--------+\n");
+        report.append("| statement                |     cycles |      % |\n");
+        report.append("+--------------------------+------------+--------+\n");
+        LinkedHashMap<String, long[]> kinds = new LinkedHashMap<>();
+        for(Node statement : byCycles) {
+            long spent = statements.get(statement)[0];
+            report.append(String.format("| %-24s | %10d | %5.1f%% |\n", name(statement, sourceMap), spent, percent(spent, total)));
+            kinds.computeIfAbsent(statement.getValue(), k -> new long[1])[0] += spent;
+        }
+        report.append("+--------------------------+------------+--------+\n\n");
+
+        // kinds of statement by cycles spent
+        ArrayList<String> kindsByCycles = new ArrayList<>(kinds.keySet());
+        kindsByCycles.sort((x, y) -> Long.compare(kinds.get(y)[0], kinds.get(x)[0]));
+
+        report.append("+--------------------------+------------+--------+\n");
+        report.append("| construct                |     cycles |      % |\n");
+        report.append("+--------------------------+------------+--------+\n");
+        for(String kind : kindsByCycles) {
+            long spent = kinds.get(kind)[0];
+            report.append(String.format("| %-24s | %10d | %5.1f%% |\n", kind, spent, percent(spent, total)));
+        }
+        report.append("+--------------------------+------------+--------+\n");
+
+        return report.toString();
+    }
+
+    /**
+     * names a statement by its kind and the first address of its code
+     * @param statement statement Node (null outside the code)
+     * @param sourceMap AST statement each address was generated for
+     * @return name such as "WhileStatement@0B"
+     */
+    private String name(Node statement, Node[] sourceMap) {
+        if(statement == null) {
+            return "";
+        }
+        int first = 0;
+        while(sourceMap[first] != statement) {
+            first++;
+        }
+        return String.format("%s@%02X", statement.getValue(), first);
+    }
+
+    /**
+     * percentage of total cycles
+     * @param part cycles of one statement or kind
+     * @param total cycles of the whole run
+     * @return percentage (0 if nothing ran)
+     */
+    private double percent(long part, long total) {
+        return total == 0 ? 0 : part * 100.0 / total;
+    }
+}
@@ -0,0 +1,152 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+
+/**
+ * Streaming source of programs for the compiler
+ * reads the input file in fixed-size chunks and hands each program over as soon
+ *      as the line holding its '$' delimiter has been read, so memory use does
+ *      not grow with the size of the input file
+ */
+public class ProgramReader implements ProgramSource {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private FileChannel channel;
+    private CharsetDecoder decoder;
+    private ByteBuffer bytes;
+    private CharBuffer chars;
+    private boolean endOfFile;
+
+    private StringBuilder program;      // program currently being read
+    private int lineLength;             // number of chars read on the current line
+    private boolean lineHasDelimiter;   // true if '$' was seen on the current line
+    private boolean pendingCR;          // true if the last char was '\r' (may be followed by '\n')
+
+    // programs that have been completed but not yet handed out
+    private ArrayDeque<String> ready;
+
+    /**
+     * constructor for ProgramReader, opens the given file for reading
+     * @param fileName name of test program(s) file
+     * @throws IOException if the file can not be opened
+     */
+    public ProgramReader(String fileName) throws IOException {
+        channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+
+        // same default charset Scanner used to read the file
+        decoder = Charset.defaultCharset().newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        bytes = ByteBuffer.allocate(CHUNK_SIZE);
+        chars = CharBuffer.allocate(CHUNK_SIZE);
+        endOfFile = false;
+
+        program = new StringBuilder();
+        lineLength = 0;
+        lineHasDelimiter = false;
+        pendingCR = false;
+
+        ready = new ArrayDeque<>();
+    }
+
+    /**
+     * reads until the next complete program is available
+     * @return next program in the file (each line terminated by "\n"), or null if no programs remain
+     * @throws IOException if the file can not be read
+     */
+    public String next() throws IOException {
+        while(ready.isEmpty() && !endOfFile) {
+            readChunk();
+        }
+        return ready.poll();
+    }
+
+    /**
+     * reads and decodes the next chunk of the file, splitting it into lines and programs
+     */
+    private void readChunk() throws IOException {
+        int read = channel.read(bytes);
+        boolean last = read < 0;
+
+        bytes.flip();
+        decoder.decode(bytes, chars, last);
+        if(last) {
+            decoder.flush(chars);
+        }
+        // keep any partial multi-byte character for the next chunk
+        bytes.compact();
+
+        chars.flip();
+        while(chars.hasRemaining()) {
+            accept(chars.get());
+        }
+        chars.clear();
+
+        if(last) {
+            // a final line without a line terminator still counts as a line
+            if(lineLength > 0) {
+                endLine();
+            }
+            // anything after the last '$' is not a program
+            endOfFile = true;
+        }
+    }
+
+    /**
+     * adds a single character to the current program
+     * @param c next character in the file
+     */
+    private void accept(char c) {
+        if(pendingCR) {
+            pendingCR = false;
+            if(c == '\n') {
+                // "\r\n" already ended the line
+                return;
+            }
+        }
+
+        if(c == '\r') {
+            endLine();
+            pendingCR = true;
+        } else if(c == '\n') {
+            endLine();
+        } else {
+            program.append(c);
+            lineLength++;
+            if(c == '$') {
+                lineHasDelimiter = true;
+            }
+        }
+    }
+
+    /**
+     * terminates the current line, and the current program if the line held a '$'
+     */
+    private void endLine() {
+        program.append('\n');
+
+        if(lineHasDelimiter) {
+            ready.add(program.toString());
+            program.setLength(0);
+        }
+
+        lineLength = 0;
+        lineHasDelimiter = false;
+    }
+
+    /**
+     * closes the underlying file
+     */
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,15 @@
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Source of '$'-delimited programs for the compiler
+ */
+public interface ProgramSource extends Closeable {
+
+    /**
+     * reads until the next complete program is available
+     * @return next program in the input, or null if no programs remain
+     * @throws IOException if the input can not be read
+     */
+    CharSequence next() throws IOException;
+}
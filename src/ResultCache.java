@@ -0,0 +1,22 @@
+import java.io.IOException;
+
+/**
+ * Cache of compilation results, keyed by CompilationCache.key of the program text
+ */
+public interface ResultCache {
+
+    /**
+     * looks up the result of a program
+     * @param key cache key of the program
+     * @return cached result, or null on a miss
+     */
+    CompilationResult get(String key);
+
+    /**
+     * stores the result of a program
+     * @param key cache key of the program
+     * @param result result of compiling the program
+     * @throws IOException if the result can not be stored
+     */
+    void put(String key, CompilationResult result) throws IOException;
+}
@@ -8,9 +8,15 @@ public class SemanticAnalyzer extends Component {
     private int warningCount;   // number of detected warnings
     private int errorCount;     // number of detected errors
 
-    private ArrayList<Token> tokenStream;
+    private boolean fused;          // true if this pass also does the parser's syntax checking
+    private int parseErrorCount;    // number of syntax errors (fused mode only)
+    private ArrayList<String> deferredErrors;   // semantic errors held back until the fused parse is complete
+
+    private TokenCursor tokens;     // read-only cursor over tokens recognized by the lexer
+    private SyntaxTree CST;         // only built in fused mode, when requested
     private SyntaxTree AST;
     private SymbolTable table;
+    private SymbolTable scopeTable;     // table of the current scope
 
     private SyntaxTree scopeTree;
     private Node scopePointer;
@@ -20,80 +26,158 @@ public class SemanticAnalyzer extends Component {
      * constructor for semantic analyzer component. pseudo "parses" token stream again,
      *      only adding minimally necessary Tokens to the AST
      * builds a symbol table, scope checks and type checks
-     * @param stream ArrayList of Tokens recognized by the lexer
+     * @param tokens TokenBuffer of tokens recognized by the lexer
      * @param programNo program number for debug printing
+     * @param output output buffer for the current program
      */
-    public SemanticAnalyzer(ArrayList<Token> stream, int programNo) {
+    public SemanticAnalyzer(TokenBuffer tokens, int programNo, Output output) {
+        this(tokens, programNo, output, false, false);
+    }
+
+    /**
+     * constructor for fused front end. parses and semantically analyzes the token stream
+     *      in a single recursive descent walk, reporting syntax errors like the Parser,
+     *      so the Parser does not have to be run first
+     * @param tokens TokenBuffer of tokens recognized by the lexer
+     * @param programNo program number for debug printing
+     * @param output output buffer for the current program
+     * @param keepCST true if the concrete syntax tree should also be built and kept
+     */
+    public SemanticAnalyzer(TokenBuffer tokens, int programNo, Output output, boolean keepCST) {
+        this(tokens, programNo, output, true, keepCST);
+    }
+
+    private SemanticAnalyzer(TokenBuffer tokens, int programNo, Output output, boolean fused, boolean keepCST) {
+        super(output);
+
         // initialize flags and variables
-        tokenStream = stream;
+        this.tokens = new TokenCursor(tokens);
+        this.fused = fused;
 
         scope = 0;
         table = new SymbolTable();
+        scopeTable = table;
 
         warningCount = 0;
         errorCount = 0;
+        parseErrorCount = 0;
+        deferredErrors = new ArrayList<>();
+
+        // CST root, only if the CST is being kept
+        Node cstRoot = null;
+        if(keepCST) {
+            cstRoot = new Node("Program");
+            CST = new SyntaxTree(cstRoot);
+        }
 
-        log("INFO", "Semantically analyzing program " + Integer.toString(programNo) + "...");
+        if(fused) {
+            log("INFO", "Parsing and semantically analyzing program " + Integer.toString(programNo) + "...");
+        } else {
+            log("INFO", "Semantically analyzing program " + Integer.toString(programNo) + "...");
+        }
 
         // entry point for pseudo parse
-        block(null);
+        block(null, cstRoot);
         match("$");
+        cstNode("$", cstRoot);
+
+        if(fused) {
+            // print parse result
+            if(parseSuccess()) {
+                log("INFO", "Parse completed with " + parseErrorCount + " error(s) and 0 warning(s)\n");
+                for(String msg : deferredErrors) {
+                    log("ERROR", msg);
+                }
+            } else {
+                log("ERROR", "Parse failed with " + parseErrorCount + " error(s) and 0 warning(s)\n");
+                return;
+            }
+        }
 
         warningCheck();
 
         if(success()) {
             log("INFO", "Semantic analysis completed with " + errorCount + " error(s) and " + warningCount + " warning(s)\n");
-            printAST(programNo);
-            printScopeTree(programNo);
-            printSymbolTable(programNo);
         } else {
             log("ERROR", "Semantic analysis failed with " + errorCount + " error(s) and " + warningCount + " warning(s)\n");
         }
     }
 
     /**
-     * removes and returns next Token off of Token stream
-     * @return next Token
+     * matches expected value to next expected Token in stream
+     * @param expectedValue next expected value
      */
-    private Token pop() {
-        return tokenStream.remove(0);
+    private void match(String expectedValue) {
+        // if a separate parse step has already passed successfully, a mismatch cannot happen,
+        //      so errors are only reported in fused mode
+        if(!tokens.hasNext()) {
+            parseError("Expected [ " + expectedValue + " ], found end of stream.");
+        // if current Token value equals expected value
+        } else if(tokens.peekValue().equals(expectedValue)) {
+            // remove Token and continue
+            tokens.advance();
+        } else {
+            parseError("Expected [ " + expectedValue + " ], found [ " + tokens.peekValue() + " ] at (" + tokens.peekLocation() + ")");
+        }
     }
 
     /**
-     * peeks at next Token in the Token stream
-     * @return next Token
+     * logs and counts a syntax error (fused mode only)
+     * @param msg error message
      */
-    private Token peek() {
-        return tokenStream.get(0);
+    private void parseError(String msg) {
+        if(fused) {
+            log("ERROR", msg);
+            parseErrorCount++;
+        }
     }
 
     /**
-     * matches expected value to next expected Token in stream
-     * @param expectedValue next expected value
+     * logs and counts a semantic error
+     * in fused mode the message is held back until the parse is complete, so syntax errors
+     *      are reported first, the same as when the Parser runs separately
+     * @param msg error message
      */
-    private void match(String expectedValue) {
-        // since parse step has already passed successfully, no need for error checking here
-        Token currentToken = peek();
-        // if current Token value equals expected value
-        if(currentToken.getValue().equals(expectedValue)) {
-            // remove Token and continue
-            pop();
+    private void semanticError(String msg) {
+        if(fused) {
+            deferredErrors.add(msg);
+        } else {
+            log("ERROR", msg);
+        }
+        errorCount++;
+    }
+
+    /**
+     * creates a new CST Node and adds it to the tree
+     * @param value value of new Node
+     * @param cstParent parent Node, or null if no CST is being built
+     * @return new Node, or null if no CST is being built
+     */
+    private Node cstNode(String value, Node cstParent) {
+        if(cstParent == null) {
+            return null;
         }
+        Node node = new Node(value, cstParent);
+        cstParent.addChild(node);
+        return node;
     }
 
     /**
      * type checks an id and a type or another id
      * @param symbol symbol to evaluate
-     * @param type specified type for assignment
+     * @param type specified type for assignment (null if the expr did not parse)
      * @return true if types match
      */
     private boolean typeCheck(Symbol symbol, String type) {
+        if(type == null) {
+            return false;
+        }
         String sType = symbol.getType();
 
         // if the other side of the expression is an id
         if(type.length() == 1) {
-            Symbol other = table.lookup(type, scopePointer);
-            if(sType.equals(other.getType())) {
+            Symbol other = scopeTable.lookup(type);
+            if(other != null && sType.equals(other.getType())) {
                 return true;
             }
         // int, string, or boolean expr
@@ -109,16 +193,20 @@ public class SemanticAnalyzer extends Component {
     /**
      * Block ::== { StatementList }
      */
-    private void block(Node astParent) {
+    private void block(Node astParent, Node cstParent) {
         // log debug message
         log("DEBUG", "Block");
 
+        Node blockCST = cstNode("Block", cstParent);
+
         match("{");
+        cstNode("{", blockCST);
 
         // if AST root has not already been created
         if(astParent == null) {
             // create new root for AST
             Node astRoot = new Node("Block");
+            astRoot.setScope(scopeTable);
             AST = new SyntaxTree(astRoot);
 
             // create new root for scope tree
@@ -126,7 +214,7 @@ public class SemanticAnalyzer extends Component {
             scopeTree = new SyntaxTree(scopeRoot);
 
             scopePointer = scopeRoot;
-            statementList(astRoot);
+            statementList(astRoot, blockCST);
         } else {
             // create new Block Node with parent and add to children list
             Node blockNode = new Node("Block", astParent);
@@ -138,10 +226,14 @@ public class SemanticAnalyzer extends Component {
             scopePointer.addChild(scopeNode);
 
             scopePointer = scopeNode;
-            statementList(blockNode);
+            scopeTable = scopeTable.openScope(scope);
+            blockNode.setScope(scopeTable);
+            statementList(blockNode, blockCST);
+            scopeTable = scopeTable.getParent();
         }
 
         match("}");
+        cstNode("}", blockCST);
         // close scope
         scopePointer = scopePointer.getParent();
         
@@ -152,13 +244,17 @@ public class SemanticAnalyzer extends Component {
      *               ::== epsilon (empty) production
      * 
      * no Node added to AST
+     * the tail call on StatementList is written as a loop so long programs do not run out of stack
+     *      (each StatementList CST Node is still nested in the previous one)
      */
-    private void statementList(Node astParent) {
+    private void statementList(Node astParent, Node cstParent) {
+        Node statementListCST = cstNode("StatementList", cstParent);
+
         // peek at current Token for Kind checking
-        Kind currentKind = peek().getKind();
+        Kind currentKind = tokens.peekKind();
 
-        // if the expected Kind of Token is in the first set for a Statement
-        if(currentKind == Kind.PRINT || 
+        // while the expected Kind of Token is in the first set for a Statement
+        while(currentKind == Kind.PRINT || 
                 currentKind == Kind.ID || 
                 currentKind == Kind.TYPE_INT || 
                 currentKind == Kind.TYPE_STRING || 
@@ -166,8 +262,9 @@ public class SemanticAnalyzer extends Component {
                 currentKind == Kind.WHILE || 
                 currentKind == Kind.IF ||
                 currentKind == Kind.OPEN_BLOCK) {
-            statement(astParent);
-            statementList(astParent);
+            statement(astParent, statementListCST);
+            statementListCST = cstNode("StatementList", statementListCST);
+            currentKind = tokens.peekKind();
         }
     }
 
@@ -181,137 +278,157 @@ public class SemanticAnalyzer extends Component {
      * 
      * no Node added to AST
      */
-    private void statement(Node astParent) {
+    private void statement(Node astParent, Node cstParent) {
+        Node statementCST = cstNode("Statement", cstParent);
+
         // peek at current Token for Kind checking
-        Kind currentKind = peek().getKind();
+        Kind currentKind = tokens.peekKind();
         
         // PrintStatement
         if(currentKind == Kind.PRINT) {
-            printStatement(astParent);
+            printStatement(astParent, statementCST);
         // AssignStatement
         } else if(currentKind == Kind.ID) {
-            assignmentStatement(astParent);
-        // VarDecl
+            assignmentStatement(astParent, statementCST);
+        // VarDecl (added to the StatementList in the CST, same as the Parser)
         } else if(currentKind == Kind.TYPE_INT || 
                 currentKind == Kind.TYPE_STRING ||
                 currentKind == Kind.TYPE_BOOLEAN) {
-            varDecl(astParent);
+            varDecl(astParent, cstParent);
         // WhileStatement
         } else if(currentKind == Kind.WHILE) {
-            whileStatement(astParent);
+            whileStatement(astParent, statementCST);
         // IfStatement
         } else if(currentKind == Kind.IF) {
-            ifStatement(astParent);
+            ifStatement(astParent, statementCST);
         // Block
         } else if(currentKind == Kind.OPEN_BLOCK) {
-            block(astParent);
+            block(astParent, statementCST);
         }
     }
 
     /**
      * PrintStatement ::== print ( Expr )
      */
-    private void printStatement(Node astParent) {
+    private void printStatement(Node astParent, Node cstParent) {
         // log debug message
         log("DEBUG", "PrintStatement");
 
         // create new Node and add it to tree
         Node printStatementNode = new Node("PrintStatement", astParent);
         astParent.addChild(printStatementNode);
+        Node printStatementCST = cstNode("PrintStatement", cstParent);
 
         match("print");
+        cstNode("print", printStatementCST);
         match("(");
+        cstNode("(", printStatementCST);
 
-        expr(printStatementNode);
+        expr(printStatementNode, printStatementCST);
 
         match(")");
+        cstNode(")", printStatementCST);
     }
 
     /**
      * AssignmentStatement ::== Id = Expr
      */
-    private void assignmentStatement(Node astParent) {
+    private void assignmentStatement(Node astParent, Node cstParent) {
         // log debug message
         log("DEBUG", "AssignmentStatement");
 
         // create new Node and add it to tree
         Node assignStatementNode = new Node("AssignmentStatement", astParent);
         astParent.addChild(assignStatementNode);
+        Node assignStatementCST = cstNode("AssignmentStatement", cstParent);
 
-        String symbol = id(assignStatementNode);
+        Node idNode = id(assignStatementNode, assignStatementCST);
+        String symbol = idNode.getValue();
 
         match("=");
+        cstNode("=", assignStatementCST);
 
-        String type = expr(assignStatementNode);
+        String type = expr(assignStatementNode, assignStatementCST);
+
+        // no scope or type checking once the syntax is known to be broken (or there is no expr)
+        if(!parseSuccess() || type == null) {
+            return;
+        }
 
         // check if symbol is declared in table at all
-        Symbol s = table.lookup(symbol, scopePointer);
+        Symbol s = scopeTable.lookup(symbol);
         if(s != null) {
+            idNode.setSymbol(s);
             // perform type check
             if(typeCheck(s, type)) {
                 // symbol has now been initialized to a value
                 s.initialize();
             } else {
                 // mismatched type
-                log("ERROR", "Mismatched types. Unable to assign symbol " + symbol + " to type " + type);
-                errorCount++;
+                semanticError("Mismatched types. Unable to assign symbol " + symbol + " to type " + type);
             }
         } else {
             // not in symbol table
-            log("ERROR", "Variable not declared. Symbol " + symbol + " not found in symbol table.");
-            errorCount++;
+            semanticError("Variable not declared. Symbol " + symbol + " not found in symbol table.");
         } 
     }
 
     /**
      * VarDecl ::== type Id
      */
-    private void varDecl(Node astParent) {
+    private void varDecl(Node astParent, Node cstParent) {
         // log debug message
         log("DEBUG", "VarDecl");
 
         // create new Node and add it to tree
         Node varDeclNode = new Node("VarDecl", astParent);
         astParent.addChild(varDeclNode);
+        Node varDeclCST = cstNode("VarDecl", cstParent);
         
-        String type = type(varDeclNode);
-        String id = id(varDeclNode);
+        String type = type(varDeclNode, varDeclCST);
+        Node idNode = id(varDeclNode, varDeclCST);
 
-        table.addSymbol(new Symbol(id, type, scopePointer, false, false));
+        Symbol symbol = new Symbol(idNode.getValue(), type, scopeTable, false, false);
+        idNode.setSymbol(symbol);
+        scopeTable.addSymbol(symbol);
     }
 
     /**
      * WhileStatement ::== while BooleanExpr Block
      */
-    private void whileStatement(Node astParent) {
+    private void whileStatement(Node astParent, Node cstParent) {
         // log debug message
         log("DEBUG", "WhileStatement");
 
         // create new Node and add it to tree
         Node whileStatementNode = new Node("WhileStatement", astParent);
         astParent.addChild(whileStatementNode);
+        Node whileStatementCST = cstNode("WhileStatement", cstParent);
 
         match("while");
+        cstNode("while", whileStatementCST);
 
-        booleanExpr(whileStatementNode);
-        block(whileStatementNode);
+        booleanExpr(whileStatementNode, whileStatementCST);
+        block(whileStatementNode, whileStatementCST);
     }
 
     /**
      * IfStatement ::== if BooleanExpr Block
      */
-    private void ifStatement(Node astParent) {
+    private void ifStatement(Node astParent, Node cstParent) {
         // log debug message
         log("DEBUG", "IfStatement");
 
         // create new Node and add it to tree
         Node ifStatementNode = new Node("IfStatement", astParent);
         astParent.addChild(ifStatementNode);
+        Node ifStatementCST = cstNode("IfStatement", cstParent);
 
         match("if");
+        cstNode("if", ifStatementCST);
 
-        booleanExpr(ifStatementNode);
-        block(ifStatementNode);
+        booleanExpr(ifStatementNode, ifStatementCST);
+        block(ifStatementNode, ifStatementCST);
     }
 
     /**
@@ -322,33 +439,41 @@ public class SemanticAnalyzer extends Component {
      * 
      * no Node added to AST
      */
-    private String expr(Node astParent) {
+    private String expr(Node astParent, Node cstParent) {
+        Node exprCST = cstNode("Expr", cstParent);
+
         // peek at current Token for Kind checking
-        Kind currentKind = peek().getKind();
+        Kind currentKind = tokens.peekKind();
 
         if(currentKind == Kind.DIGIT) {
-            intExpr(astParent);
+            intExpr(astParent, exprCST);
             return "int";
         } else if(currentKind == Kind.QUOTE) {
-            stringExpr(astParent);
+            stringExpr(astParent, exprCST);
             return "string";
         } else if(currentKind == Kind.OPEN_PAREN ||
                     currentKind == Kind.FALSE ||
                     currentKind == Kind.TRUE) {
-            booleanExpr(astParent);
+            booleanExpr(astParent, exprCST);
             return "boolean";
         } else if(currentKind == Kind.ID) {
-            String s = id(astParent);
+            Node idNode = id(astParent, exprCST);
+            String s = idNode.getValue();
+            if(!parseSuccess()) {
+                return s;
+            }
             // mark id as used
-            Symbol symbol = table.lookup(s, scopePointer);
+            Symbol symbol = scopeTable.lookup(s);
             if(symbol != null) {
+                idNode.setSymbol(symbol);
                 symbol.use();
             } else {
                 // not in symbol table 
-                log("ERROR", "Variable not declared. Symbol " + s + " not found in symbol table within the current scope.");
-                errorCount++;
+                semanticError("Variable not declared. Symbol " + s + " not found in symbol table within the current scope.");
             }
             return s;
+        } else {
+            parseError("Expected Expr [TYPE_INT, TYPE_STRING, TYPE_BOOLEAN, FALSE, TRUE, ID] , found " + currentKind + " with value [ " + tokens.peekValue() + " ] at (" + tokens.peekLocation() + ")");
         }
         return null;
     }
@@ -357,57 +482,67 @@ public class SemanticAnalyzer extends Component {
      * IntExpr ::== digit intop Expr
      *         ::== digit
      */
-    private void intExpr(Node astParent) {
+    private void intExpr(Node astParent, Node cstParent) {
         // log debug message
         log("DEBUG", "IntExpr");
+
+        Node intExprCST = cstNode("IntExpr", cstParent);
         
         // parse first digit, then get current Token after digit is matched
-        digit(astParent);
+        digit(astParent, intExprCST);
 
         // peek at current Token for Kind checking
-        Kind currentKind = peek().getKind();
+        Kind currentKind = tokens.peekKind();
 
         if(currentKind == Kind.ADD_OP) {
-            intOp(astParent);
-            expr(astParent);
+            intOp(astParent, intExprCST);
+            expr(astParent, intExprCST);
         }
     }
 
     /**
      * StringExpr ::== " CharList "
      */
-    private void stringExpr(Node astParent) {
+    private void stringExpr(Node astParent, Node cstParent) {
         // log debug message
         log("DEBUG", "StringExpr");
 
+        Node stringExprCST = cstNode("StringExpr", cstParent);
+
         match("\"");
+        cstNode("\"", stringExprCST);
 
-        charList(astParent);
+        charList(astParent, stringExprCST);
 
         match("\"");
+        cstNode("\"", stringExprCST);
     }
 
     /**
      * BooleanExpr ::== ( Expr boolop Expr )
      *             ::== boolval
      */
-    private void booleanExpr(Node astParent) {
+    private void booleanExpr(Node astParent, Node cstParent) {
         // log debug message
         log("DEBUG", "BooleanExpr");
 
+        Node booleanExprCST = cstNode("BooleanExpr", cstParent);
+
         // peek at current Token for Kind checking
-        Kind currentKind = peek().getKind();
+        Kind currentKind = tokens.peekKind();
 
         if(currentKind == Kind.TRUE || currentKind == Kind.FALSE) {
-            boolVal(astParent);
+            boolVal(astParent, booleanExprCST);
         } else {
             match("(");
+            cstNode("(", booleanExprCST);
 
-            expr(astParent);
-            boolOp(astParent);
-            expr(astParent);
+            expr(astParent, booleanExprCST);
+            boolOp(astParent, booleanExprCST);
+            expr(astParent, booleanExprCST);
 
             match(")");
+            cstNode(")", booleanExprCST);
         }
     }
 
@@ -415,9 +550,10 @@ public class SemanticAnalyzer extends Component {
      * Id ::== char
      * 
      * no Node added to AST
+     * @return AST Node of the id's char, so its Symbol can be attached once it is resolved
      */
-    private String id(Node astParent) {
-        return character(astParent);
+    private Node id(Node astParent, Node cstParent) {
+        return character(astParent, cstNode("Id", cstParent));
     }
 
     /**
@@ -426,18 +562,20 @@ public class SemanticAnalyzer extends Component {
      *          ::== epsilon (empty) production
      * 
      * convert CharList to a single string for AST Node
+     * (each CharList CST Node is nested in the previous one)
      */
-    private void charList(Node astParent) {
+    private void charList(Node astParent, Node cstParent) {
         StringBuilder strBuilder = new StringBuilder();
+        Node charListCST = cstNode("CharList", cstParent);
 
         // peek at current Token for Kind and Value checking
-        Token current = peek();
+        while(tokens.peekKind() == Kind.CHAR) {
+            String currentValue = tokens.peekValue();
+            strBuilder.append(currentValue);
+            tokens.advance();
 
-        while(current.getKind() == Kind.CHAR) {
-            strBuilder.append(current.getValue());
-
-            pop();
-            current = peek();
+            cstNode(currentValue, cstNode(currentValue.equals(" ") ? "space" : "char", charListCST));
+            charListCST = cstNode("CharList", charListCST);
         }
 
         // create new Node and add it to tree
@@ -448,21 +586,26 @@ public class SemanticAnalyzer extends Component {
     /**
      * type ::== int | string | boolean
      */
-    private String type(Node astParent) {
+    private String type(Node astParent, Node cstParent) {
+        Node typeCST = cstNode("type", cstParent);
+
         // peek at current Token for Kind checking
-        Kind currentKind = peek().getKind();
+        Kind currentKind = tokens.peekKind();
 
         if(currentKind == Kind.TYPE_INT) {
             match("int");
             astParent.addChild(new Node("int", astParent));
+            cstNode("int", typeCST);
             return "int";
         } else if(currentKind == Kind.TYPE_STRING) {
             match("string");
             astParent.addChild(new Node("string", astParent));
+            cstNode("string", typeCST);
             return "string";
         } else if(currentKind == Kind.TYPE_BOOLEAN) {
             match("boolean");
             astParent.addChild(new Node("boolean", astParent));
+            cstNode("boolean", typeCST);
             return "boolean";
         }
         return null;
@@ -471,10 +614,11 @@ public class SemanticAnalyzer extends Component {
     /**
      * char ::== a | b | c | ... | z
      */
-    private String character(Node astParent) {
+    private Node character(Node astParent, Node cstParent) {
+        Node charCST = cstNode("char", cstParent);
+
         // peek at current Token for Value checking
-        Token currentToken = peek();
-        String currentValue = currentToken.getValue();
+        String currentValue = tokens.peekValue();
 
         String expectedLetter = "";
 
@@ -505,21 +649,24 @@ public class SemanticAnalyzer extends Component {
             case "x": expectedLetter = "x"; break;
             case "y": expectedLetter = "y"; break;
             case "z": expectedLetter = "z"; break;
-            default: log("ERROR", "Expected char [a-z] , found [ " + currentValue + " ] at (" + currentToken.getLine() + ":" + currentToken.getPos() + ")"); break;
+            default: log("ERROR", "Expected char [a-z] , found [ " + currentValue + " ] at (" + tokens.peekLocation() + ")"); break;
         }
 
         match(expectedLetter);
-        astParent.addChild(new Node(expectedLetter, astParent));
-        return expectedLetter;
+        Node charNode = new Node(expectedLetter, astParent);
+        astParent.addChild(charNode);
+        cstNode(expectedLetter, charCST);
+        return charNode;
     }
 
     /**
      * digit ::== 0 | 1 | 2 | 3 | 4 | 5 | 6 | 7 | 8 | 9
      */
-    private void digit(Node astParent) {
+    private void digit(Node astParent, Node cstParent) {
+        Node digitCST = cstNode("digit", cstParent);
+
         // peek at current Token for Value checking
-        Token currentToken = peek();
-        String currentValue = currentToken.getValue();
+        String currentValue = tokens.peekValue();
 
         String expectedDigit = "";
 
@@ -534,51 +681,65 @@ public class SemanticAnalyzer extends Component {
             case "7": expectedDigit = "7"; break;
             case "8": expectedDigit = "8"; break;
             case "9": expectedDigit = "9"; break;
-            default: log("ERROR", "Expected digit [0-9] , found [ " + currentValue + " ] at (" + currentToken.getLine() + ":" + currentToken.getPos() + ")"); break;
+            default: log("ERROR", "Expected digit [0-9] , found [ " + currentValue + " ] at (" + tokens.peekLocation() + ")"); break;
         }
 
         match(expectedDigit);
         astParent.addChild(new Node(expectedDigit, astParent));
+        cstNode(expectedDigit, digitCST);
     }
 
     /**
      * boolop ::== == | !=
      */
-    private void boolOp(Node astParent) {
+    private void boolOp(Node astParent, Node cstParent) {
+        Node boolOpCST = cstNode("boolop", cstParent);
+
         // peek at current Token for Value checking
-        Kind currentKind = peek().getKind();
+        Kind currentKind = tokens.peekKind();
 
         if(currentKind == Kind.EQUALITY_OP) {
             match("==");
             astParent.addChild(new Node("==", astParent));
+            cstNode("==", boolOpCST);
         } else if(currentKind == Kind.INEQUALITY_OP) {
             match("!=");
             astParent.addChild(new Node("!=", astParent));
+            cstNode("!=", boolOpCST);
+        } else {
+            parseError("Expected boolop [==, !=] , found [ " + tokens.peekValue() + " ] at (" + tokens.peekLocation() + ")");
         }
     }
 
     /**
      * boolval ::== false | true
      */
-    private void boolVal(Node astParent) {
+    private void boolVal(Node astParent, Node cstParent) {
+        Node boolValCST = cstNode("boolval", cstParent);
+
         // peek at current Token for Value checking
-        Kind currentKind = peek().getKind();
+        Kind currentKind = tokens.peekKind();
 
         if(currentKind == Kind.TRUE) {
             match("true");
             astParent.addChild(new Node("true", astParent));
+            cstNode("true", boolValCST);
         } else if(currentKind == Kind.FALSE) {
             match("false");
             astParent.addChild(new Node("false", astParent));
+            cstNode("false", boolValCST);
         }
     }
 
     /**
      * intop ::== +
      */
-    private void intOp(Node astParent) {
+    private void intOp(Node astParent, Node cstParent) {
+        Node intOpCST = cstNode("intop", cstParent);
+
         match("+");
         astParent.addChild(new Node("+", astParent));
+        cstNode("+", intOpCST);
     }
 
     private void warningCheck() {
@@ -594,15 +755,6 @@ public class SemanticAnalyzer extends Component {
         }
     }
 
-    /**
-     * prints formatted symbol table
-     */
-    public void printSymbolTable(int programNo) {
-        // print symbol table
-        System.out.println("Program " + programNo + " Symbol Table");
-        System.out.println(table.toString());
-    }
-
     /**
      * getter for SymbolTable
      * @return complete SymbolTable
@@ -612,13 +764,11 @@ public class SemanticAnalyzer extends Component {
     }
 
     /**
-     * prints formatted abstract syntax tree
+     * getter for concrete syntax tree
+     * @return SyntaxTree CST, or null if it was not kept
      */
-    public void printAST(int programNo) {
-        // print AST
-        System.out.println("Program " + programNo + " Abstract Syntax Tree");
-        System.out.println("------------------------------------");
-        System.out.println(AST.toString());
+    public SyntaxTree getCST() {
+        return CST;
     }
 
     /**
@@ -629,16 +779,6 @@ public class SemanticAnalyzer extends Component {
         return AST;
     }
 
-    /**
-     * prints formatted scope tree
-     * @param programNo
-     */
-    public void printScopeTree(int programNo) {
-        System.out.println("Program " + programNo + " Scope Tree");
-        System.out.println("------------------------------------");
-        System.out.println(scopeTree.toString());
-    }
-
     /**
      * getter for scope tree
      * @return
@@ -652,7 +792,15 @@ public class SemanticAnalyzer extends Component {
      * @return true if no errors
      */
     public boolean success() {
-        return errorCount == 0;
+        return parseErrorCount == 0 && errorCount == 0;
+    }
+
+    /**
+     * determines if the fused parse completed without syntax errors
+     * @return true if no syntax errors (always true when not in fused mode)
+     */
+    public boolean parseSuccess() {
+        return parseErrorCount == 0;
     }
 
     /**
@@ -0,0 +1,156 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Static area allocator for the Code Generator
+ * finds the live range of every variable over the AST, then gives variables whose
+ *      live ranges never overlap the same static byte by colouring the interference graph
+ *
+ * a live range runs from a variable's declaration to its last reference, in AST order
+ *      (the order code is generated in); a reference inside a while loop that does not
+ *      also contain the declaration keeps the variable live to the end of the loop
+ */
+public class StaticAllocator {
+
+    private int index;      // pre-order number of the Node being visited
+
+    private HashMap<Node, Integer> loopEnds;    // last pre-order number inside each WhileStatement
+    private HashMap<Symbol, int[]> ranges;      // live range {first, last} of each declared variable
+
+    /**
+     * constructor for StaticAllocator, finds live ranges of every variable in the AST
+     * @param ast abstract syntax tree with resolved Symbols on id Nodes
+     */
+    public StaticAllocator(SyntaxTree ast) {
+        loopEnds = new HashMap<>();
+        ranges = new HashMap<>();
+
+        index = 0;
+        numberLoops(ast.getRoot());
+
+        index = 0;
+        findRanges(ast.getRoot(), new ArrayList<>());
+    }
+
+    /**
+     * records the last pre-order number inside each while loop
+     * @param node root of subtree to number
+     */
+    private void numberLoops(Node node) {
+        index++;
+        for(Node child : node.getChildren()) {
+            numberLoops(child);
+        }
+        if(node.getValue().equals("WhileStatement") && node.hasChildren()) {
+            loopEnds.put(node, index);
+        }
+    }
+
+    /**
+     * extends live ranges for every declaration and reference in a subtree
+     * @param node root of subtree
+     * @param loops pre-order {first, last} of each enclosing while loop, outermost first
+     */
+    private void findRanges(Node node, ArrayList<int[]> loops) {
+        int position = ++index;
+
+        Symbol symbol = node.getSymbol();
+        if(symbol != null) {
+            Node parent = node.getParent();
+            if(parent != null && parent.getValue().equals("VarDecl")) {
+                // declaration starts the live range
+                ranges.putIfAbsent(symbol, new int[] {position, position});
+            } else {
+                int[] range = ranges.get(symbol);
+                if(range != null) {
+                    int last = position;
+                    // the value has to survive every trip around the outermost loop the variable was declared outside of
+                    for(int[] loop : loops) {
+                        if(loop[0] > range[0]) {
+                            last = Math.max(last, loop[1]);
+                            break;
+                        }
+                    }
+                    range[1] = Math.max(range[1], last);
+                }
+            }
+        }
+
+        boolean loop = loopEnds.containsKey(node);
+        if(loop) {
+            loops.add(new int[] {position, loopEnds.get(node)});
+        }
+        for(Node child : node.getChildren()) {
+            findRanges(child, loops);
+        }
+        if(loop) {
+            loops.remove(loops.size() - 1);
+        }
+    }
+
+    /**
+     * assigns a static slot to every entry in the table, sharing slots between
+     *      variables that do not interfere (greedy colouring in order of declaration,
+     *      which is optimal for live ranges that are intervals)
+     * @param table static variables that code was generated for
+     * @return number of slots (bytes) needed for the static area
+     */
+    public int allocate(VariableTable table) {
+        List<VariableEntry> entries = table.getTable();
+        int n = entries.size();
+
+        // interference graph: variables interfere if their live ranges overlap
+        ArrayList<ArrayList<Integer>> interferes = new ArrayList<>(n);
+        for(int i = 0; i < n; i++) {
+            interferes.add(new ArrayList<>());
+        }
+        for(int i = 0; i < n; i++) {
+            int[] a = rangeOf(entries.get(i));
+            for(int j = i + 1; j < n; j++) {
+                int[] b = rangeOf(entries.get(j));
+                if(a[0] <= b[1] && b[0] <= a[1]) {
+                    interferes.get(i).add(j);
+                    interferes.get(j).add(i);
+                }
+            }
+        }
+
+        // entries are in code order, so they are already sorted by start of live range
+        int slots = 0;
+        boolean[] taken = new boolean[n + 1];
+        for(int i = 0; i < n; i++) {
+            for(int j : interferes.get(i)) {
+                if(j < i) {
+                    taken[entries.get(j).getSlot()] = true;
+                }
+            }
+            int slot = 0;
+            while(taken[slot]) {
+                slot++;
+            }
+            entries.get(i).setSlot(slot);
+            slots = Math.max(slots, slot + 1);
+
+            for(int j : interferes.get(i)) {
+                if(j < i) {
+                    taken[entries.get(j).getSlot()] = false;
+                }
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * getter for live range of a static variable
+     * @param entry static variable
+     * @return {first, last} pre-order numbers (the whole program if unknown)
+     */
+    private int[] rangeOf(VariableEntry entry) {
+        int[] range = ranges.get(entry.getSymbol());
+        if(range == null) {
+            return new int[] {0, Integer.MAX_VALUE};
+        }
+        return range;
+    }
+}
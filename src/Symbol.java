@@ -7,9 +7,10 @@ public class Symbol {
 
     private String name;
     private String type;
-    private Node scope;
+    private SymbolTable scope;
     private boolean isInit;
     private boolean isUsed;
+    private boolean frozen;     // set once the Symbol is part of a CompilationResult
     // value, line, pos
  
     /**
@@ -20,7 +21,7 @@ public class Symbol {
      * @param isInit true if variable was initialized
      * @param isUsed true if variable is used in code
      */
-    public Symbol(String name, String type, Node scope, boolean isInit, boolean isUsed) {
+    public Symbol(String name, String type, SymbolTable scope, boolean isInit, boolean isUsed) {
         this.name = name;
         this.type = type;
         this.scope = scope;
@@ -48,7 +49,7 @@ public class Symbol {
      * getter for Symbol scope
      * @return scope in which variable was declared
      */
-    public Node getScope() {
+    public SymbolTable getScope() {
         return scope;
     }
 
@@ -72,6 +73,7 @@ public class Symbol {
      * sets isInit value to true
      */
     public void initialize() {
+        checkNotFrozen();
         isInit = true;
     }
 
@@ -79,6 +81,24 @@ public class Symbol {
      * sets isUsed to true
      */
     public void use() {
+        checkNotFrozen();
         isUsed = true;
     }
+
+    /**
+     * makes this Symbol read-only
+     */
+    public void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * checks that this Symbol may still be changed
+     * @throws IllegalStateException if the Symbol is frozen
+     */
+    private void checkNotFrozen() {
+        if(frozen) {
+            throw new IllegalStateException("Symbol " + name + " is part of a compilation result and can not be changed");
+        }
+    }
 }
@@ -1,59 +1,155 @@
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 
 /**
  * SymbolTable object used to keep track of variables
  *      during the semantic analysis phase
+ *
+ * each SymbolTable holds the symbols declared in one scope, hashed by id, and points
+ *      to the table of the enclosing scope, so a lookup only visits the scopes that
+ *      enclose it. every table in the tree shares one list of symbols in declaration order
+ *
+ * a table is also the identity of its scope: the analyzer puts it on the AST Block
+ *      that opens the scope and on every Symbol declared in it
+ * the tree of tables is frozen once it is part of a CompilationResult: from then on
+ *      no table or Symbol in it can be changed, as the result may be shared between threads
  */
 public class SymbolTable {
 
-    private ArrayList<SymbolTable> children;
-    private ArrayList<Symbol> symbols;
+    private int id;                             // scope number, in the order blocks are opened
+    private SymbolTable parent;                 // table of enclosing scope (null for the outermost scope)
+    private List<SymbolTable> children;
+    private HashMap<String, Symbol> scope;      // symbols declared in this scope
+    private List<Symbol> symbols;               // every symbol in the program, in declaration order
+    private boolean frozen;
 
+    /**
+     * constructor for SymbolTable of the outermost scope
+     */
     public SymbolTable() {
+        this(0, null, new ArrayList<>());
+    }
+
+    private SymbolTable(int id, SymbolTable parent, List<Symbol> symbols) {
+        this.id = id;
+        this.parent = parent;
+        this.symbols = symbols;
         children = new ArrayList<>();
-        symbols = new ArrayList<>();
+        scope = new HashMap<>();
+    }
+
+    /**
+     * creates the table for a scope nested in this one
+     * @param id number of the new scope
+     * @return table of the new scope
+     */
+    public SymbolTable openScope(int id) {
+        checkNotFrozen();
+        SymbolTable child = new SymbolTable(id, this, symbols);
+        children.add(child);
+        return child;
+    }
+
+    /**
+     * getter for scope number
+     * @return number of this scope (0 for the outermost scope)
+     */
+    public int getId() {
+        return id;
     }
 
+    /**
+     * getter for table of enclosing scope
+     * @return parent table, or null for the outermost scope
+     */
+    public SymbolTable getParent() {
+        return parent;
+    }
+
+    /**
+     * adds a symbol declared in this scope
+     * @param s symbol to add
+     */
     public void addSymbol(Symbol s) {
+        checkNotFrozen();
+        // a redeclaration is listed, but lookups keep finding the first declaration
+        scope.putIfAbsent(s.getName(), s);
         symbols.add(s);
     }
 
-    public Symbol lookup(String id, Node scope) {
-        // if not found, look up in parent scopes
-        Node temp = scope;
+    /**
+     * looks up an id in this scope, then in each enclosing scope
+     * @param id name of variable
+     * @return nearest declaration of id, or null if not declared
+     */
+    public Symbol lookup(String id) {
+        SymbolTable temp = this;
         while(temp != null) {
-            for (Symbol s : symbols) {
-                // if id name is the same and if scope value is the same
-                //System.out.println(id + ", " + scope.getValue());
-                if(s.getName().equals(id) && s.getScope().getValue().equals(temp.getValue())) {
-                    return s;
-                }
+            Symbol s = temp.scope.get(id);
+            if(s != null) {
+                return s;
             }
-            temp = temp.getParent();
+            temp = temp.parent;
         }
         // not found
         return null;
     }
 
-    public Symbol lookup(String id, String type) {
-        // if not found, look up in parent scopes{
-        for (Symbol s : symbols) {
-            // if id name is the same and if scope value is the same
-            //System.out.println(id + ", " + scope.getValue());
-            if(s.getName().equals(id) && s.getType().equals(type)) {
-                return s;
+    /**
+     * getter for tables of nested scopes
+     * @return tables of the scopes directly nested in this one (read-only once frozen)
+     */
+    public List<SymbolTable> getChildren() {
+        return children;
+    }
+
+    /**
+     * getter for symbols
+     * @return every symbol in the program, in declaration order (read-only once frozen)
+     */
+    public List<Symbol> getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * makes the whole tree of tables, and every Symbol in it, read-only
+     */
+    public void freeze() {
+        // every table shares the symbols, so freeze from the outermost scope down
+        SymbolTable root = this;
+        while(root.parent != null) {
+            root = root.parent;
+        }
+        if(!root.frozen) {
+            for(Symbol s : root.symbols) {
+                s.freeze();
             }
+            root.freezeScopes();
         }
-        // not found
-        return null;
     }
 
-    public ArrayList<SymbolTable> getChildren() {
-        return children;
+    /**
+     * makes this table and the tables nested in it read-only
+     */
+    private void freezeScopes() {
+        frozen = true;
+        children = Collections.unmodifiableList(children);
+        symbols = Collections.unmodifiableList(symbols);
+        for(SymbolTable child : children) {
+            child.freezeScopes();
+        }
     }
 
-    public ArrayList<Symbol> getSymbols() {
-        return symbols;
+    /**
+     * checks that this table may still be changed
+     * @throws IllegalStateException if the table is frozen
+     */
+    private void checkNotFrozen() {
+        if(frozen) {
+            throw new IllegalStateException("Symbol table of scope " + id + " is part of a compilation result and can not be changed");
+        }
     }
 
     public String toString() {
@@ -78,7 +174,7 @@ public class SymbolTable {
             }
 
             // scope
-            table.append("| " + s.getScope().getValue() + "     | ");
+            table.append("| " + s.getScope().getId() + "     | ");
 
             // isInit
             boolean init = s.getIsInit();
@@ -83,4 +83,11 @@ public class SyntaxTree {
     public String toString() {
         return depthFirstTraversal(root);
     }
+
+    /**
+     * makes every Node of the tree read-only
+     */
+    public void freeze() {
+        root.freeze();
+    }
 }
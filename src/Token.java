@@ -15,10 +15,14 @@ public class Token extends Component {
      * Token constructor
      * @param k Kind of Token
      * @param v value of Token
+     * @param line line number of Token
+     * @param pos position of Token within its line
      */
     public Token(Kind k, String v, int line, int pos) {
         this.kindOfToken = k;
         this.value = v;
+        this.line = line;
+        this.pos = pos;
     }
 
     /**
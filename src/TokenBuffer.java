@@ -0,0 +1,199 @@
+import java.util.Arrays;
+
+/**
+ * Token stream produced by the Lexer, stored column-wise
+ * each token is a Kind ordinal plus its line, position and offset into the
+ *      program source, so no object is made per token
+ *
+ * token values are never copied: keywords and symbols always have the same
+ *      text, and ids, digits and chars are a single character of the source
+ * a buffer is frozen once it is part of a CompilationResult: no token can be added,
+ *      and the source is copied, as it may be a view over a reused or mapped buffer
+ */
+public class TokenBuffer {
+
+    private static final Kind[] KINDS = Kind.values();
+
+    // text of every Kind whose value is always the same
+    private static final String[] FIXED_VALUE = new String[KINDS.length];
+
+    // shared single character values (ids, digits and chars are always ASCII)
+    private static final String[] CHAR_VALUE = new String[128];
+
+    static {
+        for(Kind k : KINDS) {
+            FIXED_VALUE[k.ordinal()] = Keywords.lexeme(k);
+        }
+        FIXED_VALUE[Kind.OPEN_BLOCK.ordinal()] = "{";
+        FIXED_VALUE[Kind.CLOSE_BLOCK.ordinal()] = "}";
+        FIXED_VALUE[Kind.OPEN_PAREN.ordinal()] = "(";
+        FIXED_VALUE[Kind.CLOSE_PAREN.ordinal()] = ")";
+        FIXED_VALUE[Kind.ASSIGN_OP.ordinal()] = "=";
+        FIXED_VALUE[Kind.INEQUALITY_OP.ordinal()] = "!=";
+        FIXED_VALUE[Kind.EQUALITY_OP.ordinal()] = "==";
+        FIXED_VALUE[Kind.ADD_OP.ordinal()] = "+";
+        FIXED_VALUE[Kind.QUOTE.ordinal()] = "\"";
+        FIXED_VALUE[Kind.EOP.ordinal()] = "$";
+
+        for(char c = 0; c < 128; c++) {
+            CHAR_VALUE[c] = String.valueOf(c).intern();
+        }
+    }
+
+    private CharSequence source;    // program the tokens were read from
+
+    private byte[] kinds;           // Kind ordinal of each token
+    private int[] lines;            // line number of each token
+    private int[] positions;        // position within the line of each token
+    private int[] offsets;          // index of each token in the source (-1 if added by the Lexer)
+    private int size;
+    private boolean frozen;
+
+    /**
+     * constructor for TokenBuffer
+     * @param source program the tokens are read from
+     */
+    public TokenBuffer(CharSequence source) {
+        this.source = source;
+
+        int capacity = 64;
+        kinds = new byte[capacity];
+        lines = new int[capacity];
+        positions = new int[capacity];
+        offsets = new int[capacity];
+        size = 0;
+    }
+
+    /**
+     * appends a token
+     * @param kind Kind of token
+     * @param line line number of token
+     * @param pos position of token within the line
+     * @param offset index of token in the source, or -1 if the token is not in the source
+     */
+    public void add(Kind kind, int line, int pos, int offset) {
+        if(frozen) {
+            throw new IllegalStateException("Tokens are part of a compilation result and can not be changed");
+        }
+        if(size == kinds.length) {
+            grow();
+        }
+        kinds[size] = (byte) kind.ordinal();
+        lines[size] = line;
+        positions[size] = pos;
+        offsets[size] = offset;
+        size++;
+    }
+
+    /**
+     * doubles the capacity of every column
+     */
+    private void grow() {
+        int capacity = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+    }
+
+    /**
+     * getter for number of tokens
+     * @return number of tokens
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * checks if there are no tokens
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * getter for kind of token
+     * @param i index of token
+     * @return Kind of token
+     */
+    public Kind getKind(int i) {
+        checkIndex(i);
+        return KINDS[kinds[i]];
+    }
+
+    /**
+     * getter for value of token (shared String, nothing is allocated)
+     * @param i index of token
+     * @return value of token
+     */
+    public String getValue(int i) {
+        checkIndex(i);
+        String fixed = FIXED_VALUE[kinds[i]];
+        if(fixed != null) {
+            return fixed;
+        }
+        char c = source.charAt(offsets[i]);
+        return c < 128 ? CHAR_VALUE[c] : String.valueOf(c);
+    }
+
+    /**
+     * getter for line number of token
+     * @param i index of token
+     * @return line number
+     */
+    public int getLine(int i) {
+        checkIndex(i);
+        return lines[i];
+    }
+
+    /**
+     * getter for position of token within its line
+     * @param i index of token
+     * @return position
+     */
+    public int getPos(int i) {
+        checkIndex(i);
+        return positions[i];
+    }
+
+    /**
+     * getter for offset of token in the source
+     * @param i index of token
+     * @return index in the source, or -1 if the token was added by the Lexer
+     */
+    public int getOffset(int i) {
+        checkIndex(i);
+        return offsets[i];
+    }
+
+    /**
+     * builds a Token object for a single token (for printing and debugging)
+     * @param i index of token
+     * @return Token
+     */
+    public Token get(int i) {
+        return new Token(getKind(i), getValue(i), getLine(i), getPos(i));
+    }
+
+    /**
+     * makes the buffer read-only, keeping its own copy of the source
+     */
+    public void freeze() {
+        if(!frozen) {
+            frozen = true;
+            source = source.toString();
+        }
+    }
+
+    /**
+     * checks that there is a token at the given index
+     * @param i index of token
+     * @throws IndexOutOfBoundsException if there is no token at i
+     */
+    private void checkIndex(int i) {
+        if(i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + size);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Read-only cursor over a TokenBuffer
+ * each compiler phase reads the same buffer through its own cursor, so the
+ *      token stream is never copied and reading a token is O(1)
+ */
+public class TokenCursor {
+
+    private TokenBuffer tokens;
+    private int index;          // index of next token to read
+
+    /**
+     * constructor for TokenCursor, starts at the first token
+     * @param tokens tokens to read
+     */
+    public TokenCursor(TokenBuffer tokens) {
+        this.tokens = tokens;
+        index = 0;
+    }
+
+    /**
+     * checks if any tokens remain
+     * @return true if there is a next token
+     */
+    public boolean hasNext() {
+        return index < tokens.size();
+    }
+
+    /**
+     * peeks at Kind of next token
+     * @return Kind of next token
+     */
+    public Kind peekKind() {
+        return tokens.getKind(index);
+    }
+
+    /**
+     * peeks at value of next token
+     * @return value of next token
+     */
+    public String peekValue() {
+        return tokens.getValue(index);
+    }
+
+    /**
+     * peeks at location of next token
+     * @return "line:pos" of next token
+     */
+    public String peekLocation() {
+        return tokens.getLine(index) + ":" + tokens.getPos(index);
+    }
+
+    /**
+     * moves past next token
+     */
+    public void advance() {
+        index++;
+    }
+
+    /**
+     * remembers the current position so it can be returned to with reset
+     * @return mark for current position
+     */
+    public int mark() {
+        return index;
+    }
+
+    /**
+     * returns to a position remembered with mark
+     * @param mark mark returned by an earlier call to mark()
+     */
+    public void reset(int mark) {
+        index = mark;
+    }
+}
@@ -6,11 +6,31 @@ public class VariableEntry {
     private String tempAddress;
     private String id;
     private int scope;
+    private int index;      // position in the table
+    private int slot;       // byte in the static area (shared by variables that are never live together)
+    private Symbol symbol;
+    private boolean frozen;     // set once the entry is part of a CompilationResult
 
-    public VariableEntry(String id, int numEntries, int scope) {
+    public VariableEntry(Symbol symbol, int numEntries) {
         tempAddress = "T" + numEntries + "XX";
+        index = numEntries;
+        slot = numEntries;
+        this.symbol = symbol;
+        id = symbol.getName();
+        scope = symbol.getScope().getId();
+    }
+
+    /**
+     * constructor for a scratch byte used by generated code (no declaration)
+     * @param id name shown in the table
+     * @param numEntries number of entries already in the table
+     */
+    public VariableEntry(String id, int numEntries) {
+        tempAddress = "T" + numEntries + "XX";
+        index = numEntries;
+        slot = numEntries;
         this.id = id;
-        this.scope = scope;
+        scope = 0;
     }
 
     public String getTempAddress() {
@@ -24,5 +44,30 @@ public class VariableEntry {
     public int getScope() {
         return scope;
     }
-    
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        if(frozen) {
+            throw new IllegalStateException("Variable " + id + " is part of a compilation result and can not be changed");
+        }
+        this.slot = slot;
+    }
+
+    public Symbol getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * makes this entry read-only
+     */
+    public void freeze() {
+        frozen = true;
+    }
 }
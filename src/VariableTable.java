@@ -1,29 +1,44 @@
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 
 public class VariableTable {
     
-    private ArrayList<VariableEntry> entries;
+    private List<VariableEntry> entries;
+    private HashMap<Symbol, VariableEntry> bySymbol;   // entries keyed by declaration (identity)
+    private boolean frozen;                            // set once the table is part of a CompilationResult
 
     public VariableTable() {
         entries = new ArrayList<>();
+        bySymbol = new HashMap<>();
     }
 
-    public void addEntry(String id, int scope) {
-        VariableEntry entry = new VariableEntry(id, entries.size(), scope);
+    public void addEntry(Symbol symbol) {
+        checkNotFrozen();
+        VariableEntry entry = new VariableEntry(symbol, entries.size());
         entries.add(entry);
+        bySymbol.put(symbol, entry);
     }
 
-    public ArrayList<VariableEntry> getTable() {
+    /**
+     * adds a scratch byte that is not a declared variable
+     * @param id name shown in the table
+     * @return new entry
+     */
+    public VariableEntry addTemp(String id) {
+        checkNotFrozen();
+        VariableEntry entry = new VariableEntry(id, entries.size());
+        entries.add(entry);
+        return entry;
+    }
+
+    public List<VariableEntry> getTable() {
         return entries;
     }
 
-    public VariableEntry lookup(String id, int scope) {
-        for(VariableEntry entry : entries) {
-            if(entry.getId().equals(id) && entry.getScope() == scope) {
-                return entry;
-            }
-        }
-        return null;
+    public VariableEntry lookup(Symbol symbol) {
+        return bySymbol.get(symbol);
     }
 
     public String toString() {
@@ -45,4 +60,28 @@ public class VariableTable {
 
         return table.toString();
     }
+
+    /**
+     * makes the table and every entry in it read-only
+     */
+    public void freeze() {
+        if(frozen) {
+            return;
+        }
+        frozen = true;
+        entries = Collections.unmodifiableList(entries);
+        for(VariableEntry entry : entries) {
+            entry.freeze();
+        }
+    }
+
+    /**
+     * checks that the table may still be changed
+     * @throws IllegalStateException if the table is frozen
+     */
+    private void checkNotFrozen() {
+        if(frozen) {
+            throw new IllegalStateException("Variable table is part of a compilation result and can not be changed");
+        }
+    }
 }
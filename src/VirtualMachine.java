@@ -0,0 +1,249 @@
+/**
+ * Interpreter for executable images made by the Code Generator
+ * runs the 6502 subset (A9 AD 8D 6D A2 AE A0 AC EA 00 EC D0 EE FF) over a copy of
+ *      a 256 byte image, starting at address 0, until BRK
+ *
+ * every instruction is decoded by one switch in a single loop, with the registers
+ *      kept in locals, and its 6502 cycle count is added to a running total
+ * addresses are 16 bit little endian, but memory is only 256 bytes, so only the
+ *      low byte is used; only CPX changes the Z flag
+ *
+ * SYS prints Y as an integer if X is 01, or the null terminated string at address Y
+ *      if X is 02
+ */
+public class VirtualMachine {
+
+    public static final long DEFAULT_MAX_INSTRUCTIONS = 10_000_000L;
+
+    // 6502 cycles for each opcode (0 if not part of the subset); a taken BNE costs one more
+    private static final int[] CYCLES = new int[256];
+
+    static {
+        CYCLES[Emitter.LDA_CONST] = 2;
+        CYCLES[Emitter.LDA_MEM] = 4;
+        CYCLES[Emitter.STA] = 4;
+        CYCLES[Emitter.ADC] = 4;
+        CYCLES[Emitter.LDX_CONST] = 2;
+        CYCLES[Emitter.LDX_MEM] = 4;
+        CYCLES[Emitter.LDY_CONST] = 2;
+        CYCLES[Emitter.LDY_MEM] = 4;
+        CYCLES[Emitter.NOP] = 2;
+        CYCLES[Emitter.BRK] = 7;
+        CYCLES[Emitter.CPX] = 4;
+        CYCLES[Emitter.BNE] = 2;
+        CYCLES[Emitter.INC] = 6;
+        CYCLES[Emitter.SYS] = 6;
+    }
+
+    private byte[] memory;
+
+    private int a;
+    private int x;
+    private int y;
+    private int pc;
+    private boolean zero;
+
+    private long instructions;
+    private long cycles;
+    private StringBuilder output;
+    private String error;       // why the program stopped without reaching BRK (null if it halted)
+
+    /**
+     * constructor for VirtualMachine, loads a copy of an image
+     * @param image executable image (256 bytes)
+     */
+    public VirtualMachine(byte[] image) {
+        memory = new byte[Heap.SIZE];
+        System.arraycopy(image, 0, memory, 0, Math.min(image.length, Heap.SIZE));
+        output = new StringBuilder();
+    }
+
+    /**
+     * runs the program until BRK, a bad instruction, or the instruction limit
+     * @param maxInstructions most instructions to execute (a generated while true never halts)
+     * @return true if the program halted at BRK
+     */
+    public boolean run(long maxInstructions) {
+        return run(maxInstructions, null);
+    }
+
+    /**
+     * runs the program until BRK, a bad instruction, or the instruction limit,
+     *      counting hits, cycles and taken branches per address
+     * @param maxInstructions most instructions to execute (a generated while true never halts)
+     * @param profiler profile to add to (null to run without profiling)
+     * @return true if the program halted at BRK
+     */
+    public boolean run(long maxInstructions, Profiler profiler) {
+        long[] hits = profiler == null ? null : profiler.getHits();
+        long[] spent = profiler == null ? null : profiler.getCycles();
+        long[] taken = profiler == null ? null : profiler.getTaken();
+
+        byte[] mem = memory;
+        int a = this.a;
+        int x = this.x;
+        int y = this.y;
+        int pc = this.pc;
+        boolean zero = this.zero;
+        long count = instructions;
+        long cycles = this.cycles;
+        long limit = instructions + maxInstructions;
+
+        boolean halted = false;
+        while(error == null && !halted) {
+            if(count == limit) {
+                error = "Stopped after " + maxInstructions + " instruction(s) without reaching BRK";
+                break;
+            }
+            int start = pc;
+            int opcode = mem[pc] & 0xFF;
+            long before = cycles;
+            count++;
+            cycles += CYCLES[opcode];
+
+            switch(opcode) {
+                case Emitter.LDA_CONST:
+                    a = mem[(pc + 1) & 0xFF] & 0xFF;
+                    pc += 2;
+                    break;
+                case Emitter.LDA_MEM:
+                    a = mem[mem[(pc + 1) & 0xFF] & 0xFF] & 0xFF;
+                    pc += 3;
+                    break;
+                case Emitter.STA:
+                    mem[mem[(pc + 1) & 0xFF] & 0xFF] = (byte) a;
+                    pc += 3;
+                    break;
+                case Emitter.ADC:
+                    a = (a + (mem[mem[(pc + 1) & 0xFF] & 0xFF] & 0xFF)) & 0xFF;
+                    pc += 3;
+                    break;
+                case Emitter.LDX_CONST:
+                    x = mem[(pc + 1) & 0xFF] & 0xFF;
+                    pc += 2;
+                    break;
+                case Emitter.LDX_MEM:
+                    x = mem[mem[(pc + 1) & 0xFF] & 0xFF] & 0xFF;
+                    pc += 3;
+                    break;
+                case Emitter.LDY_CONST:
+                    y = mem[(pc + 1) & 0xFF] & 0xFF;
+                    pc += 2;
+                    break;
+                case Emitter.LDY_MEM:
+                    y = mem[mem[(pc + 1) & 0xFF] & 0xFF] & 0xFF;
+                    pc += 3;
+                    break;
+                case Emitter.NOP:
+                    pc += 1;
+                    break;
+                case Emitter.BRK:
+                    halted = true;
+                    break;
+                case Emitter.CPX:
+                    zero = x == (mem[mem[(pc + 1) & 0xFF] & 0xFF] & 0xFF);
+                    pc += 3;
+                    break;
+                case Emitter.BNE:
+                    if(zero) {
+                        pc += 2;
+                    } else {
+                        // offset is from the end of the branch, and wraps around memory
+                        pc += 2 + mem[(pc + 1) & 0xFF];
+                        cycles++;
+                        if(taken != null) {
+                            taken[start]++;
+                        }
+                    }
+                    break;
+                case Emitter.INC: {
+                    int address = mem[(pc + 1) & 0xFF] & 0xFF;
+                    mem[address]++;
+                    pc += 3;
+                    break;
+                }
+                case Emitter.SYS:
+                    if(x == 1) {
+                        output.append(y);
+                    } else if(x == 2) {
+                        for(int address = y; mem[address] != 0; address = (address + 1) & 0xFF) {
+                            output.append((char) (mem[address] & 0xFF));
+                            if(address == 0xFF) {
+                                break;
+                            }
+                        }
+                    } else {
+                        error = String.format("Invalid system call (X = %02X) at address %02X", x, pc);
+                    }
+                    pc += 1;
+                    break;
+                default:
+                    error = String.format("Invalid instruction %02X at address %02X", opcode, pc);
+                    break;
+            }
+            pc &= 0xFF;
+
+            if(hits != null) {
+                hits[start]++;
+                spent[start] += cycles - before;
+            }
+        }
+
+        this.a = a;
+        this.x = x;
+        this.y = y;
+        this.pc = pc;
+        this.zero = zero;
+        instructions = count;
+        this.cycles = cycles;
+        return halted;
+    }
+
+    /**
+     * runs the program with the default instruction limit
+     * @return true if the program halted at BRK
+     */
+    public boolean run() {
+        return run(DEFAULT_MAX_INSTRUCTIONS);
+    }
+
+    /**
+     * getter for everything the program printed
+     * @return printed output
+     */
+    public String getOutput() {
+        return output.toString();
+    }
+
+    /**
+     * getter for why the program stopped without halting
+     * @return error message, or null if the program halted at BRK (or has not stopped)
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * getter for number of instructions executed
+     * @return instructions executed, including BRK
+     */
+    public long getInstructions() {
+        return instructions;
+    }
+
+    /**
+     * getter for number of cycles used
+     * @return total 6502 cycles of the instructions executed
+     */
+    public long getCycles() {
+        return cycles;
+    }
+
+    /**
+     * getter for memory
+     * @return memory as the program left it
+     */
+    public byte[] getMemory() {
+        return memory;
+    }
+}